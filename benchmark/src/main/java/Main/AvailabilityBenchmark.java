@@ -0,0 +1,44 @@
+package Main;
+
+import CONFIG.Row;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What a customer waits for on "View Schedules" and "My Bookings": the
+ * availability query itself (AvailabilityIndex.reload, i.e. every upcoming
+ * schedule with its guide), the in-memory answer the dashboards actually use,
+ * and one customer's bookings join.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Benchmark
+    public void availabilityQuery(BenchmarkDatabase db) {
+        AvailabilityIndex.shared(db.con).reload();
+    }
+
+    @Benchmark
+    public List<AvailabilityIndex.Availability> availabilityFromIndex(BenchmarkDatabase db) {
+        return AvailabilityIndex.shared(db.con).available();
+    }
+
+    @Benchmark
+    public List<Row> customerBookings(BenchmarkDatabase db) {
+        int customerId = db.firstCustomerId + ThreadLocalRandom.current().nextInt(db.customers);
+        return db.con.fetchRecords(CustomerDashboard.MY_BOOKINGS_SQL + " WHERE " + CustomerDashboard.MY_BOOKINGS_FILTER,
+                customerId);
+    }
+}
@@ -0,0 +1,135 @@
+package Main;
+
+import CONFIG.DbConfig;
+import CONFIG.Row;
+import CONFIG.dbConnect;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The database every benchmark in a fork runs against: a copy of baklay.db in
+ * a temp directory (so the real file is never touched), filled once per fork
+ * by DataGenerator with production-like volumes: Zipf trek popularity,
+ * seasonal dates, 1-8 guests per booking and schedules whose capacity is the
+ * seats their bookings left. The app's pool, caches and writer thread are
+ * process-wide, so they are set up here once and shared by all benchmarks.
+ *
+ * Settings (-Dkey=value after -jvmArgsAppend, or in baklay.properties):
+ *   baklay.bench.template   ../baklay.db   schema source (migrated on first use)
+ *   baklay.bench.customers  10000
+ *   baklay.bench.guides     50
+ *   baklay.bench.treks      60             added to the template's treks
+ *   baklay.bench.schedules  bookings / 4   spread over a year back and a year ahead
+ *   baklay.bench.bookings   100000
+ *
+ * All data comes from DataGenerator's fixed seed, so every run on the same
+ * day measures the same rows. System.out is discarded while benchmarks run:
+ * the dbConnect methods print their tables and status lines, and that would
+ * swamp the JMH output.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    static final String PASSWORD = DataGenerator.PASSWORD;
+
+    // Customers have IDs firstCustomerId .. firstCustomerId + customers - 1
+    int firstCustomerId;
+    int customers;
+    // Upcoming schedules with a guide and room for BookingBenchmark's party
+    int[] scheduleIds;
+    int firstBookingId;
+    int bookings;
+
+    dbConnect con;
+
+    private String[] customerEmails;
+    private Path dir;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dir = Files.createTempDirectory("baklay-bench");
+        Path db = dir.resolve("baklay.db");
+        Files.copy(Paths.get(DbConfig.get("baklay.bench.template", "../baklay.db")), db,
+                StandardCopyOption.REPLACE_EXISTING);
+        System.setProperty("baklay.db.path", db.toString()); // before dbConnect opens its pool
+
+        con = new dbConnect();
+        seed();
+        TrekCatalog.shared(con);
+        AvailabilityIndex.shared(con);
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        dbConnect.getPool().close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    String customerEmail(int n) {
+        return customerEmails[n];
+    }
+
+    //-----------------------------------------------
+    // SEEDING
+    //-----------------------------------------------
+
+    private void seed() throws SQLException {
+        DataGenerator.Settings settings = new DataGenerator.Settings();
+        settings.customers = DbConfig.getInt("baklay.bench.customers", 10_000);
+        settings.guides = DbConfig.getInt("baklay.bench.guides", 50);
+        settings.treks = DbConfig.getInt("baklay.bench.treks", 60);
+        settings.schedules = DbConfig.getInt("baklay.bench.schedules", -1);
+        settings.bookings = DbConfig.getInt("baklay.bench.bookings", 100_000);
+        DataGenerator generator = new DataGenerator(con, settings);
+        generator.run();
+
+        int[] customerIds = generator.getCustomerIds();
+        scheduleIds = generator.getOpenScheduleIds(BookingBenchmark.PARTY.length);
+        if (customerIds.length == 0 || scheduleIds.length == 0 || generator.getBookingCount() == 0) {
+            throw new SQLException("Benchmark data needs customers, bookings and upcoming schedules with free seats: "
+                    + "raise baklay.bench.customers / schedules / bookings.");
+        }
+        customers = customerIds.length;
+        firstCustomerId = customerIds[0];
+        firstBookingId = generator.getFirstBookingId();
+        bookings = (int) generator.getBookingCount();
+
+        customerEmails = new String[customers];
+        List<Row> rows = con.queryRecords("SELECT u_id, u_email FROM table_user WHERE u_id BETWEEN ? AND ?",
+                firstCustomerId, customerIds[customers - 1]);
+        for (Row row : rows) {
+            customerEmails[row.getInt("u_id") - firstCustomerId] = row.getString("u_email");
+        }
+    }
+}
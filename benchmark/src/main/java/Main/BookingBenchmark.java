@@ -0,0 +1,51 @@
+package Main;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The write path: a booking through ReservationEngine (seats, booking and guest
+ * rows in one transaction) followed by its cancellation, so the seeded
+ * schedules never fill up; and single-row inserts through addRecord and
+ * addRecordAndGetId (the group-commit writer thread). Run with -t N to see
+ * how the writer behaves under concurrent writers.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    static final String[] PARTY = {"Guest A", "Guest B"};
+
+    @Benchmark
+    public ReservationEngine.Cancellation bookAndCancel(BenchmarkDatabase db) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int customerId = db.firstCustomerId + random.nextInt(db.customers);
+        int scheduleId = db.scheduleIds[random.nextInt(db.scheduleIds.length)];
+        ReservationEngine engine = new ReservationEngine(db.con);
+        ReservationEngine.Booking booking = engine.book(customerId, scheduleId, PARTY, 1000);
+        return booking.isBooked() ? engine.cancel(customerId, booking.getBookingId()) : null;
+    }
+
+    @Benchmark
+    public void addRecord(BenchmarkDatabase db) {
+        int bookingId = db.firstBookingId + ThreadLocalRandom.current().nextInt(db.bookings);
+        db.con.addRecord(ReservationEngine.GUEST_SQL, bookingId, "Walk-in guest");
+    }
+
+    @Benchmark
+    public int addRecordAndGetId(BenchmarkDatabase db) {
+        int bookingId = db.firstBookingId + ThreadLocalRandom.current().nextInt(db.bookings);
+        return db.con.addRecordAndGetId(ReservationEngine.GUEST_SQL, bookingId, "Walk-in guest");
+    }
+}
@@ -0,0 +1,46 @@
+package Main;
+
+import CONFIG.Row;
+import CONFIG.dbConnect;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The login path: the lookup by email (main.LOGIN_SQL through fetchRecords),
+ * the password hash, and both together as main.runSession does them.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Benchmark
+    public List<Row> loginLookup(BenchmarkDatabase db) {
+        int customer = ThreadLocalRandom.current().nextInt(db.customers);
+        return db.con.fetchRecords(main.LOGIN_SQL, db.customerEmail(customer));
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return dbConnect.hashPassword(BenchmarkDatabase.PASSWORD);
+    }
+
+    // Lookup, hash the typed password, compare
+    @Benchmark
+    public boolean login(BenchmarkDatabase db) {
+        int customer = ThreadLocalRandom.current().nextInt(db.customers);
+        List<Row> result = db.con.fetchRecords(main.LOGIN_SQL, db.customerEmail(customer));
+        return !result.isEmpty()
+                && dbConnect.hashPassword(BenchmarkDatabase.PASSWORD).equals(result.get(0).getString("u_pass"));
+    }
+}
@@ -0,0 +1,69 @@
+package Main;
+
+import CONFIG.TableRenderer;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Table rendering: TableRenderer on its own (no database, output discarded),
+ * and viewRecords end to end, i.e. query, width sampling and rendering of a
+ * page of users (System.out is discarded by BenchmarkDatabase).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    private static final TableRenderer.Layout LAYOUT = new TableRenderer.Layout(10, 8, 45, 12, 12, 10, 15, 25);
+    private static final String[] HEADERS = {"ID", "Name", "Email", "Contact", "Type", "Status"};
+    private static final String[] COLUMNS = {"u_id", "u_name", "u_email", "u_contact", "u_type", "u_status"};
+
+    @Param({"50"})
+    public int rows;
+
+    private final Writer discard = new Writer() {
+        @Override
+        public void write(char[] buf, int off, int len) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Benchmark
+    public void renderTable() throws IOException {
+        TableRenderer table = LAYOUT.newTable();
+        table.header("Sched ID", "Trek ID", "Trek", "Date", "Capacity", "Seats", "Guide", "Difficulty");
+        for (int i = 0; i < rows; i++) {
+            table.row(i, 7, "Osmena Peak to Kawasan Falls Traverse", "2027-01-11", 15, 9, "Guide " + i, "Moderate");
+        }
+        table.separator().writeTo(discard);
+    }
+
+    @Benchmark
+    public long viewRecords(BenchmarkDatabase db) {
+        int first = db.firstCustomerId + ThreadLocalRandom.current().nextInt(Math.max(1, db.customers - rows));
+        return db.con.viewRecords(AdminDashboard.USERS_SQL + " WHERE u_id >= ? AND u_id < ?", HEADERS, COLUMNS, null,
+                first, first + rows);
+    }
+}
@@ -0,0 +1,116 @@
+package CONFIG;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking database reads off the caller's thread, for the *Async
+ * methods of dbConnect.
+ *
+ * On a JVM with virtual threads (Java 21+) every task gets its own virtual
+ * thread; otherwise a fixed pool of daemon threads is used. Either way at most
+ * `permits` tasks run at once - the number of reader connections - so extra
+ * tasks wait here instead of timing out in ConnectionPool.acquireReader().
+ *
+ * A task that throws completes its future exceptionally with that exception
+ * (nothing is printed); dbConnect.await() turns it back into an SQLException.
+ */
+public class AsyncExecutor implements AutoCloseable {
+
+    // Body of an asynchronous read
+    public interface Task<T> {
+        T run() throws SQLException;
+    }
+
+    private final ExecutorService threads;
+    private final boolean virtual;
+    private final Semaphore permits;
+
+    public AsyncExecutor(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("Need at least one permit.");
+        }
+        this.virtual = hasVirtualThreads();
+        this.threads = newTaskExecutor(permits, "db-async");
+        this.permits = new Semaphore(permits, true);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() if this JVM has it (looked up by name: the code builds for Java 8)
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // One virtual thread per task where available, otherwise `fallbackThreads` daemon threads named
+    // namePrefix-1, namePrefix-2, ... (also used by the HTTP server for its requests)
+    public static ExecutorService newTaskExecutor(int fallbackThreads, String namePrefix) {
+        ExecutorService vt = newVirtualThreadExecutor();
+        return (vt != null) ? vt : newDaemonPool(fallbackThreads, namePrefix);
+    }
+
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newDaemonPool(int size, String namePrefix) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, namePrefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    //-----------------------------------------------
+    // SUBMIT
+    //-----------------------------------------------
+
+    public <T> CompletableFuture<T> submit(Task<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            threads.execute(() -> runLimited(task, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new SQLException("Async executor is closed.", e));
+        }
+        return result;
+    }
+
+    private <T> void runLimited(Task<T> task, CompletableFuture<T> result) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(new SQLException("Interrupted while waiting to run.", e));
+            return;
+        }
+        try {
+            result.complete(task.run());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        threads.shutdown();
+    }
+}
@@ -0,0 +1,184 @@
+package CONFIG;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of SQLite connections: one writer and up to N readers.
+ *
+ * SQLite only lets one connection write at a time, so every INSERT/UPDATE/DELETE
+ * goes through the single writer connection while SELECTs share the reader
+ * connections. Connections are opened lazily, checked before they are handed
+ * out, and kept open between calls so dbConnect no longer pays an open/close
+ * (and a file handle) for every query.
+ */
+public class ConnectionPool {
+
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 30_000;
+
+    private final int maxReaders;
+    private final long acquireTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final BlockingQueue<PooledConnection> idleReaders;
+    private final BlockingQueue<PooledConnection> idleWriter = new ArrayBlockingQueue<>(1);
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final AtomicInteger openWriters = new AtomicInteger();
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(int maxReaders, long acquireTimeoutMillis, int statementCacheSize) {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("Pool needs at least one reader connection.");
+        }
+        this.maxReaders = maxReaders;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+    }
+
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    //-----------------------------------------------
+    // ACQUIRE
+    //-----------------------------------------------
+
+    // Borrow a connection for SELECT statements
+    public PooledConnection acquireReader() throws SQLException {
+        return acquire(idleReaders, openReaders, maxReaders, true);
+    }
+
+    // Borrow the (single) connection used for INSERT/UPDATE/DELETE
+    public PooledConnection acquireWriter() throws SQLException {
+        return acquire(idleWriter, openWriters, 1, false);
+    }
+
+    private PooledConnection acquire(BlockingQueue<PooledConnection> idle, AtomicInteger open,
+                                     int max, boolean reader) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        while (true) {
+            PooledConnection pc = idle.poll();
+
+            // Nothing idle: open a new one if we are still under the limit
+            if (pc == null && reserveSlot(open, max)) {
+                try {
+                    return open(reader);
+                } catch (SQLException e) {
+                    open.decrementAndGet();
+                    throw e;
+                }
+            }
+
+            // At the limit: wait for somebody to give one back
+            if (pc == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLException("Timed out waiting for a " + (reader ? "reader" : "writer") + " connection.");
+                }
+                try {
+                    pc = idle.poll(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection.", e);
+                }
+                if (pc == null) {
+                    continue;
+                }
+            }
+
+            // Health check before handing it out; broken connections are dropped and replaced
+            if (isHealthy(pc)) {
+                pc.markBorrowed();
+                return pc;
+            }
+            discard(pc, open);
+        }
+    }
+
+    private static boolean reserveSlot(AtomicInteger open, int max) {
+        while (true) {
+            int current = open.get();
+            if (current >= max) {
+                return false;
+            }
+            if (open.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection open(boolean reader) throws SQLException {
+        Connection raw = dbConnect.connectDB();
+        if (raw == null) {
+            throw new SQLException("Could not open a database connection.");
+        }
+        if (reader) {
+            // Readers must never write; SQLite enforces this per connection
+            try (Statement st = raw.createStatement()) {
+                st.execute("PRAGMA query_only = 1");
+            }
+        }
+        PooledConnection pc = new PooledConnection(this, raw, reader, statementCacheSize);
+        pc.markBorrowed();
+        return pc;
+    }
+
+    // Connections that sat idle for a while get a real round trip, recently used ones only a closed check
+    private static boolean isHealthy(PooledConnection pc) {
+        try {
+            Connection raw = pc.getConnection();
+            if (raw.isClosed()) {
+                return false;
+            }
+            return pc.idleMillis() < VALIDATE_AFTER_IDLE_MILLIS || raw.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    //-----------------------------------------------
+    // RELEASE
+    //-----------------------------------------------
+
+    // Called by PooledConnection.close()
+    void release(PooledConnection pc) {
+        AtomicInteger open = pc.isReader() ? openReaders : openWriters;
+        BlockingQueue<PooledConnection> idle = pc.isReader() ? idleReaders : idleWriter;
+
+        if (closed || !pc.resetForReuse() || !idle.offer(pc)) {
+            discard(pc, open);
+        }
+    }
+
+    private static void discard(PooledConnection pc, AtomicInteger open) {
+        open.decrementAndGet();
+        pc.closeQuietly();
+    }
+
+    //-----------------------------------------------
+    // SHUTDOWN
+    //-----------------------------------------------
+
+    // Closes every idle connection; borrowed ones are closed when they are given back
+    public void close() {
+        closed = true;
+        PooledConnection pc;
+        while ((pc = idleReaders.poll()) != null) {
+            discard(pc, openReaders);
+        }
+        while ((pc = idleWriter.poll()) != null) {
+            discard(pc, openWriters);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package CONFIG;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads an RFC 4180 CSV file one record at a time (the format ExportWriter
+ * writes): quoted fields may hold commas, doubled quotes and line breaks.
+ * Files ending in .gz are decompressed on the fly. Only the current record is
+ * kept in memory.
+ *
+ *   try (CsvReader in = CsvReader.open(path)) {
+ *       String[] header = in.next();
+ *       String[] record;
+ *       while ((record = in.next()) != null) { ... in.getLine() ... }
+ *   }
+ */
+public class CsvReader implements AutoCloseable {
+
+    private final BufferedReader in;
+    private final StringBuilder field = new StringBuilder(64);
+    private final List<String> fields = new ArrayList<>();
+    private long line = 0;      // line the current record starts on
+    private long nextLine = 1;
+
+    public CsvReader(InputStream in) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public static CsvReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new CsvReader(in);
+    }
+
+    // 1-based line number where the last record returned by next() started
+    public long getLine() {
+        return line;
+    }
+
+    // The next record, or null at the end of the file. Blank lines are skipped.
+    public String[] next() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        line = nextLine;
+        boolean quoted = false;
+        boolean any = false;    // read anything at all for this record
+        int c;
+        while ((c = in.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');  // "" inside quotes
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r') {
+                // dropped; \n ends the record
+            } else if (c == '\n') {
+                nextLine++;
+                if (fields.isEmpty() && field.length() == 0) {
+                    line = nextLine;    // blank line
+                    any = false;
+                    continue;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field in the record starting on line " + line);
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
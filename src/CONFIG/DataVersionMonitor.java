@@ -0,0 +1,200 @@
+package CONFIG;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells in-process caches when ANOTHER process (another terminal on the same
+ * baklay.db) changed a table they were built from.
+ *
+ * Two cheap checks, polled in the background:
+ *   1. PRAGMA data_version on a connection of our own. It changes when any
+ *      other connection committed (this process's pooled writer included), so
+ *      most polls stop right here.
+ *   2. If it changed, table_changes (one counter per table, bumped by
+ *      triggers, see SchemaMigrator migration 4) says WHICH tables changed,
+ *      and only their listeners run.
+ *
+ * This process's own commits go through commitOwnWrites (Transaction and
+ * WriteExecutor do that), which marks the counter steps they made as seen:
+ * the code that wrote already updated its caches. That is only possible when
+ * no other process committed since our previous commit; otherwise, and for
+ * the first commit, the listeners run as for any outside change.
+ *
+ * Without table_changes (older schema) every listener runs on any change.
+ *
+ *   dbConnect.getChangeMonitor().onChange("tables_treks", catalog::refresh);
+ *
+ * Listeners run on the monitor thread, so they must be thread-safe.
+ * Poll interval: baklay.cache.pollMs=N (default 1000).
+ */
+public class DataVersionMonitor implements AutoCloseable {
+
+    public static final long DEFAULT_POLL_MILLIS = DbConfig.getLong("baklay.cache.pollMs", 1000L);
+
+    private static final String VERSIONS_SQL = "SELECT tbl, version FROM table_changes";
+
+    private final Connection conn;
+    private final ScheduledExecutorService poller;
+    private final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
+
+    private long lastDataVersion = Long.MIN_VALUE;   // MIN_VALUE = not read yet
+    private final Map<String, Long> lastTableVersions = new HashMap<>();
+
+    // The writer connection as of our last commit on it: its data_version and the table counters
+    private Connection writer;
+    private long writerDataVersion;
+    private Map<String, Long> writerTableVersions;
+
+    public DataVersionMonitor(long pollMillis) throws SQLException {
+        this.conn = dbConnect.connectDB();
+        if (conn == null) {
+            throw new SQLException("Could not open a connection for change monitoring.");
+        }
+        checkNow(); // baseline; nothing has changed yet
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-change-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs the listener whenever another process changes the table (see commitOwnWrites for our own)
+    public void onChange(String table, Runnable listener) {
+        listeners.computeIfAbsent(key(table), k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    //-----------------------------------------------
+    // POLLING
+    //-----------------------------------------------
+
+    private void poll() {
+        try {
+            checkNow();
+        } catch (SQLException e) {
+            System.out.println("Change check failed: " + e.getMessage()); // try again next poll
+        } catch (RuntimeException e) {
+            System.out.println("Cache refresh failed: " + e); // a throwing listener must not stop the poller
+        }
+    }
+
+    // One poll. Can also be called directly by code that wants to be sure it sees the latest data.
+    public void checkNow() throws SQLException {
+        Set<String> changed;
+        synchronized (this) {
+            long dataVersion = readDataVersion(conn);
+            if (dataVersion == lastDataVersion) {
+                return; // nobody else committed since the last poll
+            }
+            boolean baseline = (lastDataVersion == Long.MIN_VALUE);
+            lastDataVersion = dataVersion;
+
+            Map<String, Long> versions = readTableVersions(conn);
+            if (versions == null) {
+                // No counters to tell tables apart: treat everything as changed
+                changed = baseline ? new HashSet<String>() : new HashSet<>(listeners.keySet());
+            } else {
+                changed = new HashSet<>();
+                for (Map.Entry<String, Long> e : versions.entrySet()) {
+                    Long previous = lastTableVersions.put(e.getKey(), e.getValue());
+                    if (previous != null && !previous.equals(e.getValue())) {
+                        changed.add(e.getKey());
+                    }
+                }
+            }
+        }
+        // Listeners run outside the lock; they usually query the database themselves
+        for (String table : changed) {
+            List<Runnable> forTable = listeners.get(table);
+            if (forTable != null) {
+                for (Runnable listener : forTable) {
+                    listener.run();
+                }
+            }
+        }
+    }
+
+    //-----------------------------------------------
+    // OWN WRITES
+    //-----------------------------------------------
+
+    // Commits the open transaction on this process's writer connection. Inside the transaction we hold
+    // the write lock, so the counters read here are exactly what the commit publishes; if the writer's
+    // data_version hasn't moved since our last commit, every step since then is ours.
+    void commitOwnWrites(Connection writerConn) throws SQLException {
+        long dataVersion = readDataVersion(writerConn);
+        Map<String, Long> versions = readTableVersions(writerConn);
+        synchronized (this) { // a poll can't see the commit before we've noted it
+            writerConn.commit();
+            boolean onlyOurs = versions != null && writerTableVersions != null
+                    && writerConn == writer && dataVersion == writerDataVersion;
+            if (onlyOurs) {
+                for (Map.Entry<String, Long> e : versions.entrySet()) {
+                    Long before = writerTableVersions.get(e.getKey());
+                    // Only if the poller is up to date with everything before our steps
+                    if (before != null && before.equals(lastTableVersions.get(e.getKey()))) {
+                        lastTableVersions.put(e.getKey(), e.getValue());
+                    }
+                }
+            }
+            writer = writerConn;
+            writerDataVersion = dataVersion;
+            writerTableVersions = versions;
+        }
+    }
+
+    private static long readDataVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA data_version")) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    // null if the table_changes table does not exist
+    private static Map<String, Long> readTableVersions(Connection c) {
+        Map<String, Long> versions = new HashMap<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(VERSIONS_SQL)) {
+            while (rs.next()) {
+                versions.put(key(rs.getString(1)), rs.getLong(2));
+            }
+            return versions;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static String key(String table) {
+        return table.toLowerCase(Locale.ROOT);
+    }
+
+    // Tables that currently have listeners (for diagnostics)
+    public List<String> getWatchedTables() {
+        return new ArrayList<>(listeners.keySet());
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // already closed
+        }
+    }
+}
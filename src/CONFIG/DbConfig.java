@@ -0,0 +1,165 @@
+package CONFIG;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * All database settings in one place.
+ *
+ * Every setting is read from (first match wins):
+ *   1. a system property, e.g. -Dbaklay.db.path=/data/baklay.db
+ *   2. the properties file: -Dbaklay.config=FILE, or baklay.properties in the
+ *      working directory if it exists
+ *   3. the default below
+ *
+ * Connection profile, applied to every connection dbConnect opens:
+ *
+ *   baklay.db.path              baklay.db   database file
+ *   baklay.db.journalMode       WAL         readers don't block the writer
+ *   baklay.db.synchronous       NORMAL      safe with WAL, far fewer fsyncs than FULL
+ *   baklay.db.cacheSize         -16000      page cache per connection (negative = KiB)
+ *   baklay.db.mmapSize          268435456   bytes read through memory-mapped I/O (0 = off)
+ *   baklay.db.tempStore         MEMORY      temp tables and sort files
+ *   baklay.db.busyTimeoutMs     5000        wait this long for a lock before SQLITE_BUSY
+ *
+ * Pool, cache and screen settings (baklay.db.readers, baklay.queryCache.size,
+ * baklay.page.size, ...) are documented where they are used.
+ */
+public final class DbConfig {
+
+    public static final String CONFIG_FILE_PROPERTY = "baklay.config";
+    private static final String DEFAULT_CONFIG_FILE = "baklay.properties";
+
+    private static final List<String> JOURNAL_MODES = Arrays.asList("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final List<String> SYNCHRONOUS = Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final List<String> TEMP_STORES = Arrays.asList("DEFAULT", "FILE", "MEMORY");
+
+    private static final Properties FILE = loadFile();
+
+    // Checked once; every connection gets the same statements
+    private static final String JOURNAL_MODE = choice("baklay.db.journalMode", "WAL", JOURNAL_MODES);
+    private static final List<String> PRAGMAS = buildPragmas();
+
+    private DbConfig() {
+    }
+
+    //-----------------------------------------------
+    // LOOKUP
+    //-----------------------------------------------
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = FILE.getProperty(key);
+        }
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.out.println("⚠️ Setting " + key + "=" + value + " is not a number, using " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    private static String choice(String key, String defaultValue, List<String> allowed) {
+        String value = get(key, defaultValue).toUpperCase(Locale.ROOT);
+        if (!allowed.contains(value)) {
+            System.out.println("⚠️ Setting " + key + "=" + value + " must be one of " + allowed + ", using " + defaultValue + ".");
+            return defaultValue;
+        }
+        return value;
+    }
+
+    //-----------------------------------------------
+    // CONNECTION PROFILE
+    //-----------------------------------------------
+
+    public static String getDbPath() {
+        return get("baklay.db.path", "baklay.db");
+    }
+
+    public static String getJdbcUrl() {
+        return "jdbc:sqlite:" + getDbPath();
+    }
+
+    // The PRAGMAs run on every new connection (journal mode is handled separately)
+    public static List<String> getPragmas() {
+        return PRAGMAS;
+    }
+
+    private static List<String> buildPragmas() {
+        List<String> pragmas = new ArrayList<>();
+        // First, so the statements after it wait for locks instead of failing
+        pragmas.add("PRAGMA busy_timeout = " + getLong("baklay.db.busyTimeoutMs", 5000));
+        pragmas.add("PRAGMA synchronous = " + choice("baklay.db.synchronous", "NORMAL", SYNCHRONOUS));
+        pragmas.add("PRAGMA cache_size = " + getLong("baklay.db.cacheSize", -16000));
+        pragmas.add("PRAGMA mmap_size = " + getLong("baklay.db.mmapSize", 268_435_456L));
+        pragmas.add("PRAGMA temp_store = " + choice("baklay.db.tempStore", "MEMORY", TEMP_STORES));
+        return Collections.unmodifiableList(pragmas);
+    }
+
+    // Called by dbConnect.connectDB() for every connection it opens
+    static void apply(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String pragma : PRAGMAS) {
+                st.execute(pragma);
+            }
+            // The journal mode is stored in the database file; only switch it when it differs,
+            // since switching needs the database to ourselves
+            String current;
+            try (ResultSet rs = st.executeQuery("PRAGMA journal_mode")) {
+                current = rs.next() ? rs.getString(1) : "";
+            }
+            if (!JOURNAL_MODE.equalsIgnoreCase(current)) {
+                st.execute("PRAGMA journal_mode = " + JOURNAL_MODE);
+            }
+        }
+    }
+
+    //-----------------------------------------------
+    // PROPERTIES FILE
+    //-----------------------------------------------
+
+    private static Properties loadFile() {
+        Properties props = new Properties();
+        String explicit = System.getProperty(CONFIG_FILE_PROPERTY);
+        Path file = Paths.get(explicit != null ? explicit : DEFAULT_CONFIG_FILE);
+        if (!Files.isRegularFile(file)) {
+            if (explicit != null) {
+                System.out.println("⚠️ Config file " + file + " not found, using defaults.");
+            }
+            return props;
+        }
+        try (InputStream in = new FileInputStream(file.toFile())) {
+            props.load(in);
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not read config file " + file + ": " + e.getMessage());
+        }
+        return props;
+    }
+}
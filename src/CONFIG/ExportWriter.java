@@ -0,0 +1,235 @@
+package CONFIG;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes query rows to a CSV or NDJSON file as they are read, for exports
+ * that must not hold a whole table in memory:
+ *
+ *   try (ExportWriter out = ExportWriter.open(Paths.get("bookings.csv.gz"))) {
+ *       con.forEachRecord(sql, out, params);
+ *       out.commit();
+ *   }
+ *
+ * The format comes from the file name: .csv or .ndjson/.jsonl, plus .gz for
+ * gzip. Each row is built in one reused StringBuilder, encoded into a 64 KB
+ * buffer and written to a FileChannel (through a GZIPOutputStream if asked)
+ * whenever the buffer fills, so memory use is the same for 10 rows or 10
+ * million.
+ *
+ * Rows go to "<file>.part" first; commit() moves it to the real name, so a
+ * failed export never leaves a file that looks complete.
+ */
+public class ExportWriter implements RowCallback, AutoCloseable {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path target;
+    private final Path partial;
+    private final Format format;
+    private final FileChannel channel;
+    private final GZIPOutputStream gzip;        // null = plain file
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder line = new StringBuilder(512);
+
+    private long rows = 0;
+    private boolean committed = false;
+    private boolean closed = false;
+
+    private ExportWriter(Path target, Format format, boolean gzip) throws IOException {
+        this.target = target;
+        this.partial = target.resolveSibling(target.getFileName() + ".part");
+        this.format = format;
+        this.channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.gzip = gzip ? new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES) : null;
+    }
+
+    // Format and compression from the file name (.csv, .ndjson, .jsonl, each optionally + .gz)
+    public static ExportWriter open(Path target) throws IOException {
+        String name = target.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        Format format;
+        if (name.endsWith(".csv")) {
+            format = Format.CSV;
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            format = Format.NDJSON;
+        } else {
+            throw new IOException("Export file must end in .csv, .ndjson or .jsonl (optionally .gz): " + target);
+        }
+        return new ExportWriter(target, format, gzip);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    //-----------------------------------------------
+    // ROWS
+    //-----------------------------------------------
+
+    // CSV header line (NDJSON repeats the names in every object instead)
+    @Override
+    public void onColumns(String[] columns) throws SQLException {
+        if (format != Format.CSV) {
+            return;
+        }
+        try {
+            line.setLength(0);
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsv(columns[i]);
+            }
+            writeLine();
+        } catch (IOException e) {
+            throw new SQLException("Could not write " + partial + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onRow(ResultSet rs, String[] columns) throws SQLException {
+        try {
+            line.setLength(0);
+            if (format == Format.CSV) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    Object value = rs.getObject(i + 1);
+                    if (value != null) {
+                        appendCsv(value.toString());
+                    }
+                }
+            } else {
+                line.append('{');
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    Json.quote(line, columns[i]);
+                    line.append(':');
+                    Json.write(line, rs.getObject(i + 1));
+                }
+                line.append('}');
+            }
+            writeLine();
+            rows++;
+        } catch (IOException e) {
+            throw new SQLException("Could not write " + partial + ": " + e.getMessage(), e);
+        }
+    }
+
+    // RFC 4180: quote fields containing a comma, quote or line break; double the quotes inside
+    private void appendCsv(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = (c == ',' || c == '"' || c == '\n' || c == '\r');
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void writeLine() throws IOException {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+    }
+
+    // Buffer -> file (or gzip stream)
+    private void drain() throws IOException {
+        bytes.flip();
+        if (gzip != null) {
+            gzip.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        } else {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        bytes.clear();
+    }
+
+    //-----------------------------------------------
+    // FINISH
+    //-----------------------------------------------
+
+    // Writes out everything, syncs the file and gives it its real name. Call once all rows are written.
+    public void commit() throws IOException {
+        drain();
+        if (gzip != null) {
+            gzip.finish(); // writes the gzip trailer straight to the channel
+        }
+        channel.force(false);
+        if (gzip != null) {
+            gzip.close(); // frees the deflater and closes the channel
+        } else {
+            channel.close();
+        }
+        closed = true;
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    // Without commit() (an error part-way) the partial file is deleted
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        try {
+            if (!closed) {
+                channel.close();
+            }
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package CONFIG;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from int to int with no boxing: keys and values live in two plain
+ * int arrays (open addressing, linear probing).
+ *
+ * get() returns the "missing value" chosen at construction when a key is not
+ * present, so pick one that can't be a real value (e.g. -1 for seat counts).
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public final class IntIntHashMap {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private final int missingValue;
+
+    public IntIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public IntIntHashMap() {
+        this(MIN_CAPACITY, -1);
+    }
+
+    //-----------------------------------------------
+    // LOOKUP
+    //-----------------------------------------------
+
+    public int get(int key) {
+        int i = find(key);
+        return i < 0 ? missingValue : values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    // The keys, in no particular order
+    public int[] keys() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                out[n++] = keys[i];
+            }
+        }
+        return out;
+    }
+
+    //-----------------------------------------------
+    // UPDATES
+    //-----------------------------------------------
+
+    // Returns the previous value, or the missing value if the key was new
+    public int put(int key, int value) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size > used.length / 2) {
+            rehash(used.length * 2);
+        }
+        return missingValue;
+    }
+
+    // Returns the removed value, or the missing value if the key was not there
+    public int remove(int key) {
+        int i = find(key);
+        if (i < 0) {
+            return missingValue;
+        }
+        int removed = values[i];
+        used[i] = false;
+        size--;
+
+        // Shift later entries of the same probe run back, so lookups never stop at the hole
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int home = slot(keys[j]);
+            boolean between = (hole <= j) ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!between) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                used[hole] = true;
+                used[j] = false;
+                hole = j;
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    //-----------------------------------------------
+    // INTERNALS
+    //-----------------------------------------------
+
+    private int find(int key) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Spreads sequential ids (1, 2, 3...) across the table
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    // Power of two with room for expectedSize at half load
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,279 @@
+package CONFIG;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the HTTP API: writes Maps (Rows included), Collections,
+ * arrays, Strings, Numbers, Booleans and null, and parses request bodies into
+ * the same types (objects become LinkedHashMaps, numbers Long or Double).
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    //-----------------------------------------------
+    // WRITE
+    //-----------------------------------------------
+
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(out, value);
+        return out.toString();
+    }
+
+    // Appends one value to out (used by writers that build lines themselves, e.g. ExportWriter)
+    static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            quote(out, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            double d = (value instanceof Number) ? ((Number) value).doubleValue() : 0;
+            out.append(Double.isNaN(d) || Double.isInfinite(d) ? "null" : value.toString());
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                quote(out, String.valueOf(e.getKey()));
+                out.append(':');
+                write(out, e.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Collection) {
+            writeArray(out, ((Collection<?>) value).toArray());
+        } else if (value instanceof Object[]) {
+            writeArray(out, (Object[]) value);
+        } else {
+            quote(out, value.toString());
+        }
+    }
+
+    private static void writeArray(StringBuilder out, Object[] values) {
+        out.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            write(out, values[i]);
+        }
+        out.append(']');
+    }
+
+    static void quote(StringBuilder out, String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    //-----------------------------------------------
+    // PARSE
+    //-----------------------------------------------
+
+    // Throws IllegalArgumentException on malformed input
+    public static Object parse(String text) {
+        Parser p = new Parser(text);
+        p.skipSpace();
+        Object value = p.value();
+        p.skipSpace();
+        if (p.pos != text.length()) {
+            throw p.error("Unexpected text after the JSON value");
+        }
+        return value;
+    }
+
+    // Deeper input is rejected instead of running the request thread out of stack
+    private static final int MAX_DEPTH = 64;
+
+    private static final class Parser {
+        private final String s;
+        private int pos = 0;
+        private int depth = 0;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            if (pos >= s.length()) {
+                throw error("Unexpected end of input");
+            }
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{':
+                case '[':
+                    if (++depth > MAX_DEPTH) {
+                        throw error("Too deeply nested");
+                    }
+                    Object nested = (c == '{') ? object() : array();
+                    depth--;
+                    return nested;
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return number();
+                    }
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++; // {
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipSpace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                String key = string();
+                skipSpace();
+                expect(':');
+                skipSpace();
+                map.put(key, value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++; // [
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                skipSpace();
+                list.add(value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return list;
+                }
+            }
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++; // opening quote
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) {
+                    break;
+                }
+                char esc = s.charAt(pos++);
+                switch (esc) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) {
+                            throw error("Bad \\u escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default: sb.append(esc); // \" \\ \/
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String text = s.substring(start, pos);
+            try {
+                if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                    return Long.parseLong(text);
+                }
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw error("Bad number '" + text + "'");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!s.startsWith(word, pos)) {
+                throw error("Unexpected character '" + s.charAt(pos) + "'");
+            }
+            pos += word.length();
+            return value;
+        }
+
+        private char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
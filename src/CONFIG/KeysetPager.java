@@ -0,0 +1,219 @@
+package CONFIG;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keyset ("seek") pagination for list screens.
+ *
+ * Instead of OFFSET, each page continues after the key of the last row seen:
+ *
+ *   SELECT ... WHERE (filter) AND (s.schedule_date, s.s_id) > (?, ?)
+ *   ORDER BY s.schedule_date, s.s_id LIMIT ?
+ *
+ * so every page costs O(page size) no matter how far in it is. The keys must
+ * make the order unique (add the primary key as the last key). Going back is
+ * done by remembering where each earlier page started.
+ *
+ * Pass it to dbConnect.viewRecordsPage() or fetchPage(), then call next() /
+ * previous() and show the page again.
+ */
+public class KeysetPager {
+
+    // Rows per page unless the screen asks for something else (baklay.page.size=N)
+    public static final int DEFAULT_PAGE_SIZE = DbConfig.getInt("baklay.page.size", 20);
+
+    private final String selectFrom;
+    private final String where;
+    private final Object[] whereParams;
+    private final String[] keyExpressions;
+    private final String[] keyColumns;
+    private final int pageSize;
+
+    private Object[] after = null;          // key the current page starts after (null = first page)
+    private Object[] lastSeen = null;       // key of the last row shown on the current page
+    private final Deque<Object[]> history = new ArrayDeque<>(); // where earlier pages started
+    private boolean hasNext = false;
+    private long cacheTtlMillis = 0;        // > 0: pages come from the query cache (see QueryCache)
+
+    /**
+     * @param selectFrom     "SELECT ... FROM ... JOIN ..." without WHERE/ORDER BY/LIMIT
+     * @param where          filter condition without the WHERE keyword, or null
+     * @param keyExpressions ORDER BY expressions, e.g. {"s.schedule_date", "s.s_id"}
+     * @param keyColumns     the same keys as they are named in the result, e.g. {"schedule_date", "s_id"}
+     * @param pageSize       rows per page
+     * @param whereParams    values for the ? in the filter
+     */
+    public KeysetPager(String selectFrom, String where, String[] keyExpressions, String[] keyColumns,
+                       int pageSize, Object... whereParams) {
+        if (keyExpressions.length == 0 || keyExpressions.length != keyColumns.length) {
+            throw new IllegalArgumentException("Key expressions and key columns must match.");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        this.selectFrom = selectFrom;
+        this.where = where;
+        this.whereParams = whereParams;
+        this.keyExpressions = keyExpressions;
+        this.keyColumns = keyColumns;
+        this.pageSize = pageSize;
+    }
+
+    // Single-column key, the common case (e.g. "b.b_id" / "b_id")
+    public KeysetPager(String selectFrom, String where, String keyExpression, String keyColumn,
+                       Object... whereParams) {
+        this(selectFrom, where, new String[]{keyExpression}, new String[]{keyColumn}, DEFAULT_PAGE_SIZE, whereParams);
+    }
+
+    //-----------------------------------------------
+    // QUERY FOR THE CURRENT PAGE
+    //-----------------------------------------------
+
+    // Asks for one row more than a page so we know whether there is a next page
+    public String pageSql() {
+        StringBuilder sql = new StringBuilder(selectFrom);
+        boolean hasWhere = false;
+        if (where != null && !where.isEmpty()) {
+            sql.append(" WHERE (").append(where).append(')');
+            hasWhere = true;
+        }
+        String keyList = String.join(", ", keyExpressions);
+        if (after != null) {
+            sql.append(hasWhere ? " AND " : " WHERE ");
+            if (keyExpressions.length == 1) {
+                sql.append(keyList).append(" > ?");
+            } else {
+                // Row-value comparison, compares the keys left to right
+                sql.append('(').append(keyList).append(") > (");
+                for (int i = 0; i < keyExpressions.length; i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(')');
+            }
+        }
+        sql.append(" ORDER BY ").append(keyList).append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    public Object[] pageParams() {
+        int keys = (after == null) ? 0 : after.length;
+        Object[] params = Arrays.copyOf(whereParams, whereParams.length + keys + 1);
+        for (int i = 0; i < keys; i++) {
+            params[whereParams.length + i] = after[i];
+        }
+        params[params.length - 1] = pageSize + 1;
+        return params;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Starts at the page after this key (e.g. a cursor an HTTP client sent back); returns this for chaining
+    public KeysetPager startAfter(Object... key) {
+        if (key.length != keyColumns.length) {
+            throw new IllegalArgumentException("Expected " + keyColumns.length + " key value(s).");
+        }
+        history.clear();
+        after = key.clone();
+        return this;
+    }
+
+    // Lets pages be answered from the query cache for ttlMillis; returns this for chaining
+    public KeysetPager cacheFor(long ttlMillis) {
+        this.cacheTtlMillis = ttlMillis;
+        return this;
+    }
+
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    //-----------------------------------------------
+    // RECORDING WHAT WAS SHOWN
+    //-----------------------------------------------
+
+    // Called for each row shown (cursor positioned on it)
+    public void remember(ResultSet rs) throws SQLException {
+        Object[] key = new Object[keyColumns.length];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = rs.getObject(keyColumns[i]);
+        }
+        lastSeen = key;
+    }
+
+    public void remember(Row row) {
+        Object[] key = new Object[keyColumns.length];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = row.get(keyColumns[i]);
+        }
+        lastSeen = key;
+    }
+
+    // Called once the page has been shown
+    public void pageLoaded(boolean moreRows) {
+        this.hasNext = moreRows;
+    }
+
+    // Runs the page query through fetchRecords; returns at most one page of rows
+    public List<Row> fetchPage(dbConnect con) {
+        List<Row> rows = (cacheTtlMillis > 0)
+                ? con.fetchRecordsCached(cacheTtlMillis, pageSql(), pageParams())
+                : con.fetchRecords(pageSql(), pageParams());
+        boolean more = rows.size() > pageSize;
+        if (more) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+        }
+        if (!rows.isEmpty()) {
+            remember(rows.get(rows.size() - 1));
+        }
+        pageLoaded(more);
+        return rows;
+    }
+
+    //-----------------------------------------------
+    // NAVIGATION
+    //-----------------------------------------------
+
+    public boolean hasNext() {
+        return hasNext && lastSeen != null;
+    }
+
+    public boolean hasPrevious() {
+        return !history.isEmpty();
+    }
+
+    // 1-based number of the current page
+    public int getPageNumber() {
+        return history.size() + 1;
+    }
+
+    public boolean next() {
+        if (!hasNext()) {
+            return false;
+        }
+        history.push(after == null ? new Object[0] : after);
+        after = lastSeen;
+        return true;
+    }
+
+    public boolean previous() {
+        if (history.isEmpty()) {
+            return false;
+        }
+        Object[] start = history.pop();
+        after = (start.length == 0) ? null : start;
+        return true;
+    }
+
+    public void first() {
+        history.clear();
+        after = null;
+    }
+}
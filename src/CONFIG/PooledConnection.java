@@ -0,0 +1,93 @@
+package CONFIG;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A connection borrowed from the ConnectionPool.
+ * Use it in a try-with-resources block: close() gives it back to the pool
+ * instead of closing the underlying SQLite connection.
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final boolean reader;
+    private final StatementCache statements;
+
+    private boolean borrowed;
+    private long lastReleased = System.currentTimeMillis();
+
+    PooledConnection(ConnectionPool pool, Connection connection, boolean reader, int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.reader = reader;
+        this.statements = new StatementCache(connection, statementCacheSize);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // Cached PreparedStatement for this SQL text - do not close it, only its ResultSet
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return statements.prepare(sql);
+    }
+
+    public PreparedStatement prepareWithKeys(String sql) throws SQLException {
+        return statements.prepare(sql, true);
+    }
+
+    public StatementCache getStatementCache() {
+        return statements;
+    }
+
+    public boolean isReader() {
+        return reader;
+    }
+
+    long idleMillis() {
+        return System.currentTimeMillis() - lastReleased;
+    }
+
+    void markBorrowed() {
+        borrowed = true;
+    }
+
+    // Undo anything a caller left behind (e.g. an open transaction) before the next borrower gets it
+    boolean resetForReuse() {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            lastReleased = System.currentTimeMillis();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void closeQuietly() {
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Nothing useful to do, the connection is being thrown away anyway
+        }
+    }
+
+    // Return to the pool (safe to call twice)
+    @Override
+    public void close() {
+        if (!borrowed) {
+            return;
+        }
+        borrowed = false;
+        pool.release(this);
+    }
+}
@@ -0,0 +1,202 @@
+package CONFIG;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Short-lived cache of SELECT results, keyed by SQL text + parameters.
+ *
+ * Every entry has its own time-to-live (chosen by the caller per query) and
+ * the cache holds at most maxEntries results, dropping the least recently
+ * used first. Results are also dropped as soon as something writes to one of
+ * the tables the query reads from:
+ *   - writes through dbConnect / Transaction call invalidateWrite(sql),
+ *   - writes from other terminals arrive via DataVersionMonitor.
+ *
+ * The tables of a query are taken from its FROM / JOIN clauses, which covers
+ * the SQL in this app (no views or sub-selects on other tables).
+ */
+public class QueryCache {
+
+    // FROM x, JOIN x, INTO x, UPDATE x (optionally quoted)
+    private static final Pattern TABLE_REF =
+            Pattern.compile("\\b(?:FROM|JOIN|INTO|UPDATE)\\s+[\"`\\[]?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    /** SQL text + parameter values. */
+    private static final class Key {
+        private final String sql;
+        private final Object[] params;
+        private final int hash;
+
+        Key(String sql, Object[] params) {
+            this.sql = sql;
+            this.params = params.clone();
+            this.hash = 31 * sql.hashCode() + Arrays.hashCode(this.params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && sql.equals(other.sql) && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Cached {
+        final List<Row> rows;
+        final Set<String> tables;
+        final long expiresAt;
+
+        Cached(List<Row> rows, Set<String> tables, long expiresAt) {
+            this.rows = rows;
+            this.tables = tables;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Cached> entries;
+
+    // Bumped by every invalidation; a result read before it changed is not stored (it may be stale)
+    private long generation = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    public QueryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Cached>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                if (size() > QueryCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    //-----------------------------------------------
+    // LOOKUP / STORE
+    //-----------------------------------------------
+
+    // Cached rows, or null on a miss (never cached, expired or invalidated)
+    public synchronized List<Row> get(String sql, Object[] params) {
+        Key key = new Key(sql, params);
+        Cached entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits++;
+            return entry.rows;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    // Take this before running the query and hand it to put(), so a write in between wins
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Stores the rows (as an unmodifiable list) unless an invalidation happened since generationBefore
+    public synchronized List<Row> put(String sql, Object[] params, List<Row> rows, long ttlMillis,
+                                      long generationBefore) {
+        List<Row> stored = Collections.unmodifiableList(rows);
+        if (maxEntries > 0 && ttlMillis > 0 && generationBefore == generation) {
+            long expiresAt = System.nanoTime() + ttlMillis * 1_000_000L;
+            entries.put(new Key(sql, params), new Cached(stored, tablesOf(sql), expiresAt));
+        }
+        return stored;
+    }
+
+    //-----------------------------------------------
+    // INVALIDATION
+    //-----------------------------------------------
+
+    // Called after a write statement ran: drops results that read the table it wrote to
+    public void invalidateWrite(String sql) {
+        for (String table : tablesOf(sql)) {
+            invalidateTable(table);
+        }
+    }
+
+    public synchronized void invalidateTable(String table) {
+        generation++;
+        String name = table.toLowerCase(Locale.ROOT);
+        Iterator<Cached> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().tables.contains(name)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    // Lower-case names of the tables a statement reads or writes
+    static Set<String> tablesOf(String sql) {
+        Set<String> tables = new HashSet<>();
+        Matcher m = TABLE_REF.matcher(sql);
+        while (m.find()) {
+            tables.add(m.group(1).toLowerCase(Locale.ROOT));
+        }
+        return tables;
+    }
+
+    //-----------------------------------------------
+    // STATS
+    //-----------------------------------------------
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryCache[size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, invalidations=%d]",
+                entries.size(), maxEntries, hits, misses, getHitRate() * 100, evictions, invalidations);
+    }
+}
@@ -0,0 +1,162 @@
+package CONFIG;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * One result row: the values in an Object[] plus a Header shared by every row
+ * of the same query, which maps column name -> index once.
+ *
+ * Use the typed getters instead of casting boxed values:
+ *
+ *   int scheduleId = row.getInt("s_id");
+ *   String status  = row.getString("b_status");
+ *
+ * Row is also a read-only Map, so code that only needs row.get("column")
+ * keeps working unchanged.
+ */
+public final class Row extends AbstractMap<String, Object> {
+
+    /** Column names and their positions, built once per query. */
+    public static final class Header {
+        private final String[] columns;
+        private final Map<String, Integer> index;
+
+        public Header(String[] columns) {
+            this.columns = columns;
+            this.index = new HashMap<>(columns.length * 2);
+            for (int i = 0; i < columns.length; i++) {
+                index.putIfAbsent(columns[i], i); // first one wins if two columns share a name
+            }
+        }
+
+        public int size() {
+            return columns.length;
+        }
+
+        public String name(int i) {
+            return columns[i];
+        }
+
+        public String[] names() {
+            return columns.clone();
+        }
+
+        // -1 if there is no such column
+        public int indexOf(String column) {
+            Integer i = index.get(column);
+            return i == null ? -1 : i;
+        }
+    }
+
+    private final Header header;
+    private final Object[] values;
+
+    public Row(Header header, Object[] values) {
+        this.header = header;
+        this.values = values;
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    //-----------------------------------------------
+    // TYPED ACCESSORS
+    //-----------------------------------------------
+
+    public Object get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public Object get(Object column) {
+        int i = (column instanceof String) ? header.indexOf((String) column) : -1;
+        return i < 0 ? null : values[i];
+    }
+
+    public boolean isNull(String column) {
+        return values[require(column)] == null;
+    }
+
+    // NULL reads as 0, like ResultSet.getInt()
+    public int getInt(String column) {
+        Object v = values[require(column)];
+        return v == null ? 0 : ((Number) v).intValue();
+    }
+
+    public long getLong(String column) {
+        Object v = values[require(column)];
+        return v == null ? 0L : ((Number) v).longValue();
+    }
+
+    public double getDouble(String column) {
+        Object v = values[require(column)];
+        return v == null ? 0.0 : ((Number) v).doubleValue();
+    }
+
+    // NULL stays null; numbers are converted to text
+    public String getString(String column) {
+        Object v = values[require(column)];
+        return v == null ? null : v.toString();
+    }
+
+    private int require(String column) {
+        int i = header.indexOf(column);
+        if (i < 0) {
+            throw new IllegalArgumentException("No column '" + column + "' in this result.");
+        }
+        return i;
+    }
+
+    //-----------------------------------------------
+    // MAP VIEW
+    //-----------------------------------------------
+
+    @Override
+    public boolean containsKey(Object column) {
+        return column instanceof String && header.indexOf((String) column) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (i >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> e = new SimpleImmutableEntry<>(header.name(i), values[i]);
+                        i++;
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package CONFIG;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Called once per row by dbConnect.forEachRecord().
+ * The ResultSet is already positioned on the row - read it, don't call next() or close() on it.
+ * The column names are looked up once per query and the same array is passed for every row.
+ */
+public interface RowCallback {
+    // Called once before the first row, even when the query returns none (e.g. to write a header)
+    default void onColumns(String[] columns) throws SQLException {
+    }
+
+    void onRow(ResultSet rs, String[] columns) throws SQLException;
+}
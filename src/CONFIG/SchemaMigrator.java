@@ -0,0 +1,197 @@
+package CONFIG;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Brings baklay.db up to the current schema when the app starts.
+ *
+ * The schema version is kept in the database itself (PRAGMA user_version).
+ * Each numbered migration runs in its own transaction together with the
+ * version bump, so it is applied exactly once even if several terminals start
+ * at the same time, and a failed migration leaves the database untouched.
+ * Statements are written to be safe to re-run (IF NOT EXISTS / IF EXISTS).
+ *
+ * To change the schema, add a migration at the END of MIGRATIONS with the
+ * next version number. Never edit one that has already shipped.
+ */
+public class SchemaMigrator {
+
+    /** One numbered schema change. */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+
+    // Tables whose writes are counted in table_changes (migration 4)
+    static final String[] TRACKED_TABLES = {
+            "table_user", "tables_treks", "table_schedules", "table_bookings", "table_guests"};
+
+    static final List<Migration> MIGRATIONS;
+
+    static {
+        List<Migration> m = new ArrayList<>();
+
+        m.add(new Migration(1, "Indexes for login, guide, booking and guest lookups",
+                // Login + registration uniqueness check: covers every column the login query reads
+                "CREATE INDEX IF NOT EXISTS idx_user_email ON table_user (u_email, u_type, u_status, u_pass)",
+                // Guide pick lists: WHERE u_type = 'Guide' AND u_status = 'Approved'
+                "CREATE INDEX IF NOT EXISTS idx_user_type_status ON table_user (u_type, u_status, u_name)",
+                // Guide dashboard: schedules assigned to a guide
+                "CREATE INDEX IF NOT EXISTS idx_schedules_guide ON table_schedules (guide_id)",
+                // Customer bookings (b.u_id = ?) and bookings per schedule
+                "CREATE INDEX IF NOT EXISTS idx_bookings_user ON table_bookings (u_id)",
+                "CREATE INDEX IF NOT EXISTS idx_bookings_schedule ON table_bookings (s_id, b_status)",
+                // Trek manifest: guest names per booking
+                "CREATE INDEX IF NOT EXISTS idx_guests_booking ON table_guests (b_id, guest_name)",
+                "ANALYZE"));
+
+        m.add(new Migration(2, "Drop leftover tables from earlier schema edits",
+                "DROP TABLE IF EXISTS table_treks",
+                "DROP TABLE IF EXISTS \"table_bookings-\"",
+                "DROP TABLE IF EXISTS sqlitestudio_temp_table"));
+
+        // Declared types were wrong (dates and contacts as INTEGER, descriptions as REAL), so every
+        // comparison went through per-row affinity conversion. SQLite can't change a column type in
+        // place, so each table is rebuilt with the right types and its rows copied over.
+        List<String> retype = new ArrayList<>();
+        rebuildTable(retype, "tables_treks",
+                "t_id INTEGER PRIMARY KEY AUTOINCREMENT, t_code TEXT, t_desc TEXT, t_difficulty TEXT, t_price INTEGER",
+                "t_id, t_code, CAST(t_desc AS TEXT), t_difficulty, t_price");
+        rebuildTable(retype, "table_user",
+                "u_id INTEGER PRIMARY KEY AUTOINCREMENT, u_name TEXT NOT NULL, u_email TEXT NOT NULL, "
+                        + "u_contact TEXT NOT NULL, u_type TEXT NOT NULL, u_pass TEXT NOT NULL, u_status TEXT NOT NULL",
+                "u_id, u_name, u_email, CAST(u_contact AS TEXT), u_type, u_pass, u_status");
+        rebuildTable(retype, "table_schedules",
+                "s_id INTEGER PRIMARY KEY AUTOINCREMENT, t_id INTEGER, schedule_date TEXT NOT NULL, "
+                        + "capacity INTEGER NOT NULL, guide_id INTEGER",
+                "s_id, t_id, " + isoDate("schedule_date") + ", capacity, guide_id");
+        rebuildTable(retype, "table_bookings",
+                "b_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "u_id INTEGER REFERENCES table_user (u_id) ON DELETE RESTRICT ON UPDATE RESTRICT, "
+                        + "s_id INTEGER REFERENCES table_schedules (s_id) ON DELETE RESTRICT ON UPDATE RESTRICT, "
+                        + "b_guests INTEGER, b_total_price INTEGER, b_date TEXT, b_status TEXT",
+                "b_id, u_id, s_id, b_guests, b_total_price, " + isoDate("b_date") + ", b_status");
+        // Indexes from migration 1 went away with the old tables
+        retype.add("CREATE INDEX IF NOT EXISTS idx_user_email ON table_user (u_email, u_type, u_status, u_pass)");
+        retype.add("CREATE INDEX IF NOT EXISTS idx_user_type_status ON table_user (u_type, u_status, u_name)");
+        retype.add("CREATE INDEX IF NOT EXISTS idx_schedules_guide ON table_schedules (guide_id)");
+        retype.add("CREATE INDEX IF NOT EXISTS idx_bookings_user ON table_bookings (u_id)");
+        retype.add("CREATE INDEX IF NOT EXISTS idx_bookings_schedule ON table_bookings (s_id, b_status)");
+        // Upcoming-schedule lists: range scan on the date, capacity checked from the index
+        retype.add("CREATE INDEX IF NOT EXISTS idx_schedules_date ON table_schedules (schedule_date, capacity)");
+        retype.add("ANALYZE");
+        m.add(new Migration(3, "Store dates as ISO-8601 text and fix column types",
+                retype.toArray(new String[0])));
+
+        // One counter per table, bumped by triggers on every write, so DataVersionMonitor can tell
+        // which tables another process changed
+        List<String> counters = new ArrayList<>();
+        counters.add("CREATE TABLE IF NOT EXISTS table_changes (tbl TEXT PRIMARY KEY, version INTEGER NOT NULL DEFAULT 0)");
+        for (String table : TRACKED_TABLES) {
+            counters.add("INSERT OR IGNORE INTO table_changes (tbl) VALUES ('" + table + "')");
+            for (String event : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+                counters.add("CREATE TRIGGER IF NOT EXISTS trg_" + table + "_" + event.toLowerCase()
+                        + " AFTER " + event + " ON " + table
+                        + " BEGIN UPDATE table_changes SET version = version + 1 WHERE tbl = '" + table + "'; END");
+            }
+        }
+        m.add(new Migration(4, "Per-table change counters for cross-process cache invalidation",
+                counters.toArray(new String[0])));
+
+        MIGRATIONS = Collections.unmodifiableList(m);
+    }
+
+    // Copy-and-swap rebuild of one table, keeping its rows, ids and AUTOINCREMENT counter
+    private static void rebuildTable(List<String> out, String table, String columns, String selectList) {
+        String tmp = table + "_new";
+        out.add("DROP TABLE IF EXISTS " + tmp);
+        out.add("CREATE TABLE " + tmp + " (" + columns + ")");
+        out.add("INSERT INTO " + tmp + " SELECT " + selectList + " FROM " + table);
+        out.add("UPDATE sqlite_sequence SET seq = MAX(seq, COALESCE((SELECT seq FROM sqlite_sequence WHERE name = '"
+                + table + "'), 0)) WHERE name = '" + tmp + "'");
+        out.add("DROP TABLE " + table);
+        out.add("ALTER TABLE " + tmp + " RENAME TO " + table);
+    }
+
+    // 'YYYY-MM-DD' text stays as it is (normalized by date()); anything else is kept as text
+    private static String isoDate(String column) {
+        return "CASE WHEN typeof(" + column + ") = 'text' THEN COALESCE(date(" + column + "), " + column + ") "
+                + "WHEN " + column + " IS NULL THEN NULL ELSE CAST(" + column + " AS TEXT) END";
+    }
+
+    private SchemaMigrator() {
+    }
+
+    // Latest version this build knows about
+    public static int latestVersion() {
+        return MIGRATIONS.isEmpty() ? 0 : MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    // Applies every migration newer than the database's version. Returns the version it ends at.
+    public static int migrate(ConnectionPool pool) {
+        try (PooledConnection conn = pool.acquireWriter()) {
+            Connection c = conn.getConnection();
+            int version = readVersion(c);
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= version) {
+                    continue;
+                }
+                if (!apply(c, migration)) {
+                    break;
+                }
+                version = migration.version;
+            }
+            return version;
+        } catch (SQLException e) {
+            System.out.println("Schema migration skipped: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static boolean apply(Connection c, Migration migration) {
+        try (Statement st = c.createStatement()) {
+            // IMMEDIATE takes the write lock up front, so only one process can run a migration at a time
+            st.execute("BEGIN IMMEDIATE");
+            try {
+                // Someone else may have applied it while we waited for the lock
+                if (readVersion(c) >= migration.version) {
+                    st.execute("ROLLBACK");
+                    return true;
+                }
+                for (String sql : migration.statements) {
+                    st.execute(sql);
+                }
+                st.execute("PRAGMA user_version = " + migration.version);
+                st.execute("COMMIT");
+                System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+                return true;
+            } catch (SQLException e) {
+                st.execute("ROLLBACK");
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.out.println("Schema migration " + migration.version + " failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    static int readVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package CONFIG;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * A System.out that sends each thread's output to that thread's own stream.
+ *
+ * The dashboards print with System.out everywhere. To serve several terminals
+ * from one JVM (ConsoleServer), System.out is replaced by one SessionOutput
+ * and every session thread binds its socket's PrintStream to itself; code
+ * running on that thread then prints to its own terminal without any change.
+ * Threads without a binding (background threads, the server itself) print to
+ * the original console.
+ *
+ * Every method delegates to the current thread's stream, so sessions never
+ * wait on each other's output.
+ */
+public final class SessionOutput extends PrintStream {
+
+    private final PrintStream console;
+    private final ThreadLocal<PrintStream> current = new ThreadLocal<>();
+
+    private SessionOutput(PrintStream console) {
+        super(console, true);
+        this.console = console;
+    }
+
+    // Replaces System.out (once); returns the router
+    public static synchronized SessionOutput install() {
+        if (System.out instanceof SessionOutput) {
+            return (SessionOutput) System.out;
+        }
+        SessionOutput router = new SessionOutput(System.out);
+        System.setOut(router);
+        return router;
+    }
+
+    // Output of this thread goes to `out` until unbind()
+    public void bind(PrintStream out) {
+        current.set(out);
+    }
+
+    public void unbind() {
+        current.remove();
+    }
+
+    // The stream System.out printed to before install()
+    public PrintStream getConsole() {
+        return console;
+    }
+
+    private PrintStream target() {
+        PrintStream out = current.get();
+        return (out != null) ? out : console;
+    }
+
+    //-----------------------------------------------
+    // DELEGATION
+    //-----------------------------------------------
+
+    @Override public void flush() { target().flush(); }
+    @Override public void close() { target().close(); }
+    @Override public boolean checkError() { return target().checkError(); }
+
+    @Override public void write(int b) { target().write(b); }
+    @Override public void write(byte[] buf, int off, int len) { target().write(buf, off, len); }
+
+    @Override public void print(boolean b) { target().print(b); }
+    @Override public void print(char c) { target().print(c); }
+    @Override public void print(int i) { target().print(i); }
+    @Override public void print(long l) { target().print(l); }
+    @Override public void print(float f) { target().print(f); }
+    @Override public void print(double d) { target().print(d); }
+    @Override public void print(char[] s) { target().print(s); }
+    @Override public void print(String s) { target().print(s); }
+    @Override public void print(Object obj) { target().print(obj); }
+
+    @Override public void println() { target().println(); }
+    @Override public void println(boolean x) { target().println(x); }
+    @Override public void println(char x) { target().println(x); }
+    @Override public void println(int x) { target().println(x); }
+    @Override public void println(long x) { target().println(x); }
+    @Override public void println(float x) { target().println(x); }
+    @Override public void println(double x) { target().println(x); }
+    @Override public void println(char[] x) { target().println(x); }
+    @Override public void println(String x) { target().println(x); }
+    @Override public void println(Object x) { target().println(x); }
+
+    @Override public PrintStream printf(String format, Object... args) { target().printf(format, args); return this; }
+    @Override public PrintStream printf(Locale l, String format, Object... args) { target().printf(l, format, args); return this; }
+    @Override public PrintStream format(String format, Object... args) { target().format(format, args); return this; }
+    @Override public PrintStream format(Locale l, String format, Object... args) { target().format(l, format, args); return this; }
+
+    @Override public PrintStream append(CharSequence csq) { target().append(csq); return this; }
+    @Override public PrintStream append(CharSequence csq, int start, int end) { target().append(csq, start, end); return this; }
+    @Override public PrintStream append(char c) { target().append(c); return this; }
+}
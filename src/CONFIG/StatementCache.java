@@ -0,0 +1,106 @@
+package CONFIG;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of PreparedStatements for one pooled connection, keyed by SQL text.
+ *
+ * The dashboards send the same fixed SQL strings over and over, so keeping the
+ * prepared statement around lets SQLite skip parsing and planning on repeat
+ * calls. Statements handed out by this cache belong to it: callers close their
+ * ResultSets but must NOT close the statement itself.
+ */
+public class StatementCache {
+
+    // Totals across every connection, for a quick look at how well the cache works
+    private static final AtomicLong TOTAL_HITS = new AtomicLong();
+    private static final AtomicLong TOTAL_MISSES = new AtomicLong();
+
+    private final Connection connection;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private long hits;
+    private long misses;
+
+    public StatementCache(Connection connection, final int maxSize) {
+        this.connection = connection;
+        // accessOrder = true turns the LinkedHashMap into an LRU list
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, false);
+    }
+
+    // Statements that return generated keys are cached separately from plain ones
+    public PreparedStatement prepare(String sql, boolean returnGeneratedKeys) throws SQLException {
+        String key = returnGeneratedKeys ? "K:" + sql : sql;
+        PreparedStatement pstmt = statements.get(key);
+        if (pstmt != null && !pstmt.isClosed()) {
+            hits++;
+            TOTAL_HITS.incrementAndGet();
+            return pstmt;
+        }
+
+        misses++;
+        TOTAL_MISSES.incrementAndGet();
+        pstmt = returnGeneratedKeys
+                ? connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql);
+        statements.put(key, pstmt);
+        return pstmt;
+    }
+
+    public void clear() {
+        Iterator<PreparedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public static long getTotalHits() {
+        return TOTAL_HITS.get();
+    }
+
+    public static long getTotalMisses() {
+        return TOTAL_MISSES.get();
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        if (pstmt == null) {
+            return;
+        }
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            // Statement is being dropped anyway
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package CONFIG;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Text tables for every screen:
+ *
+ *   +------+-------+
+ *   | ID   | Name  |
+ *   +------+-------+
+ *   | 1    | Ana   |
+ *   +------+-------+
+ *
+ * The separator is built once per Layout; padding comes from shared blocks
+ * of spaces, so a row costs no allocations beyond its cell strings. Lines are
+ * collected in one StringBuilder that is reused for the whole table, and the
+ * table reaches the terminal in one write + flush (print()), instead of a
+ * flush per printf line. Long listings can drain the buffer as they go
+ * (writeTo()), so memory stays bounded.
+ *
+ *   static final TableRenderer.Layout LAYOUT = new TableRenderer.Layout(10, 40, 12);
+ *
+ *   TableRenderer table = LAYOUT.newTable();  // one per table: it is not thread-safe
+ *   table.header("ID", "Trek", "Date");
+ *   for (...) table.row(id, name, date);
+ *   table.separator().print();
+ */
+public final class TableRenderer {
+
+    private static final String NEWLINE = System.lineSeparator();
+    private static final char[] SPACES = filled(' ', 256);
+    private static final char[] DASHES = filled('-', 256);
+
+    // Writers drain the buffer once it holds this many chars
+    public static final int FLUSH_THRESHOLD = 8192;
+
+    /**
+     * Column widths and the separator built from them. Immutable, so a screen can keep
+     * one in a static field and start a new table from it every time it is shown.
+     */
+    public static final class Layout {
+        private final int[] widths;
+        private final boolean truncate;
+        private final String separator;
+
+        // Cells wider than their column push the line out (like printf "%-Ns")
+        public Layout(int... widths) {
+            this(false, widths);
+        }
+
+        // truncate = true: cells wider than their column are cut off with "..."
+        public Layout(boolean truncate, int... widths) {
+            this.widths = widths.clone();
+            this.truncate = truncate;
+            StringBuilder sb = new StringBuilder("+");
+            for (int width : widths) {
+                appendRepeated(sb, DASHES, width + 2); // one space of padding on each side
+                sb.append('+');
+            }
+            this.separator = sb.toString();
+        }
+
+        public TableRenderer newTable() {
+            return new TableRenderer(this);
+        }
+    }
+
+    private final int[] widths;
+    private final boolean truncate;
+    private final String separator;
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private char[] chunk; // reused by writeTo()
+
+    public TableRenderer(Layout layout) {
+        this.widths = layout.widths;
+        this.truncate = layout.truncate;
+        this.separator = layout.separator;
+    }
+
+    public TableRenderer(int... widths) {
+        this(new Layout(widths));
+    }
+
+    public TableRenderer(boolean truncate, int... widths) {
+        this(new Layout(truncate, widths));
+    }
+
+    public int getColumnCount() {
+        return widths.length;
+    }
+
+    //-----------------------------------------------
+    // BUILDING THE TABLE
+    //-----------------------------------------------
+
+    // Separator, header line, separator
+    public TableRenderer header(Object... cells) {
+        separator();
+        row(cells);
+        return separator();
+    }
+
+    public TableRenderer row(Object... cells) {
+        if (cells.length != widths.length) {
+            throw new IllegalArgumentException("Expected " + widths.length + " cells, got " + cells.length + ".");
+        }
+        buffer.append('|');
+        for (int i = 0; i < cells.length; i++) {
+            String cell = String.valueOf(cells[i]);
+            int width = widths[i];
+            buffer.append(' ');
+            if (truncate && cell.length() > width) {
+                buffer.append(cell, 0, Math.max(0, width - 3)).append(width >= 3 ? "..." : "");
+            } else {
+                buffer.append(cell);
+                appendRepeated(buffer, SPACES, width - cell.length());
+            }
+            buffer.append(" |");
+        }
+        buffer.append(NEWLINE);
+        return this;
+    }
+
+    public TableRenderer separator() {
+        buffer.append(separator).append(NEWLINE);
+        return this;
+    }
+
+    // Any other line (a title, a note) printed together with the table
+    public TableRenderer text(String line) {
+        buffer.append(line).append(NEWLINE);
+        return this;
+    }
+
+    // Chars waiting in the buffer
+    public int pending() {
+        return buffer.length();
+    }
+
+    //-----------------------------------------------
+    // OUTPUT
+    //-----------------------------------------------
+
+    // Sends everything built so far to System.out in one write and flushes; the renderer can then be reused
+    public void print() {
+        System.out.flush(); // keep anything printed earlier ahead of the table
+        Writer out = systemOut();
+        try {
+            writeTo(out);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Error printing table: " + e.getMessage());
+        }
+    }
+
+    // A Writer over whatever System.out is at the time of each write, so text is encoded by that
+    // stream (the console's charset, or a ConsoleServer session's UTF-8) like every other print.
+    // close() only flushes: it never closes System.out.
+    public static Writer systemOut() {
+        return new Writer() {
+            @Override public void write(char[] cbuf, int off, int len) {
+                System.out.print(new String(cbuf, off, len));
+            }
+            @Override public void write(String str, int off, int len) {
+                System.out.print(str.substring(off, off + len));
+            }
+            @Override public void flush() { System.out.flush(); }
+            @Override public void close() { System.out.flush(); }
+        };
+    }
+
+    // Moves the buffered lines to out (without flushing it) and empties the buffer
+    public void writeTo(Writer out) throws IOException {
+        int length = buffer.length();
+        if (chunk == null || chunk.length < Math.min(length, FLUSH_THRESHOLD * 2)) {
+            chunk = new char[Math.max(Math.min(length, FLUSH_THRESHOLD * 2), 256)];
+        }
+        for (int start = 0; start < length; start += chunk.length) {
+            int end = Math.min(length, start + chunk.length);
+            buffer.getChars(start, end, chunk, 0);
+            out.write(chunk, 0, end - start);
+        }
+        buffer.setLength(0);
+    }
+
+    //-----------------------------------------------
+    // PADDING
+    //-----------------------------------------------
+
+    private static char[] filled(char c, int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, c);
+        return chars;
+    }
+
+    private static void appendRepeated(StringBuilder sb, char[] block, int count) {
+        while (count > 0) {
+            int n = Math.min(count, block.length);
+            sb.append(block, 0, n);
+            count -= n;
+        }
+    }
+}
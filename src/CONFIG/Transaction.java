@@ -0,0 +1,198 @@
+package CONFIG;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A unit of work on the pooled writer connection.
+ *
+ * Everything run through one Transaction is committed together (one journal
+ * sync) or not at all. Get one from dbConnect.beginTransaction() and use it in
+ * a try-with-resources block, or let dbConnect.inTransaction() handle the
+ * commit/rollback for you:
+ *
+ *   int bookingId = con.inTransaction(tx -> {
+ *       int id = tx.insertAndGetId("INSERT INTO table_bookings ...", ...);
+ *       tx.update("UPDATE table_schedules ...", ...);
+ *       return id;
+ *   });
+ *
+ * Unlike the plain dbConnect methods, errors are thrown instead of printed so
+ * the caller can decide what to tell the user.
+ *
+ * The transaction holds the only writer connection until it finishes, so the
+ * thread that opened it must write through tx only: a plain dbConnect write
+ * (addRecord, updateRecord, submitUpdate, ...) or a second beginTransaction()
+ * on that thread would wait for the connection it already holds. Those throw
+ * IllegalStateException instead.
+ */
+public class Transaction implements AutoCloseable {
+
+    // Body of a transaction for dbConnect.inTransaction()
+    public interface Work<T> {
+        T run(Transaction tx) throws SQLException;
+    }
+
+    // The open transaction of each thread, so dbConnect can refuse writes that would wait on it
+    private static final ThreadLocal<Transaction> OPEN = new ThreadLocal<>();
+
+    private final PooledConnection conn;
+    private boolean finished = false;
+    private final List<String> writes = new ArrayList<>(); // for query cache invalidation on commit
+
+    Transaction(PooledConnection conn) throws SQLException {
+        this.conn = conn;
+        try {
+            conn.getConnection().setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        OPEN.set(this);
+    }
+
+    // Throws if this thread holds an open transaction (and with it the writer connection)
+    static void checkNoneOpen(String what) {
+        if (OPEN.get() != null) {
+            throw new IllegalStateException(what + " while this thread has a transaction open"
+                    + " would wait for its own writer connection; use tx.update/tx.insertAndGetId instead.");
+        }
+    }
+
+    // Raw connection, for callers that need a statement type the helpers below don't cover
+    public Connection getConnection() {
+        return conn.getConnection();
+    }
+
+    //-----------------------------------------------
+    // STATEMENTS
+    //-----------------------------------------------
+
+    // INSERT/UPDATE/DELETE, returns the number of affected rows
+    public int update(String sql, Object... values) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(sql);
+        dbConnect.setPreparedStatementValues(pstmt, values);
+        writes.add(sql);
+        return pstmt.executeUpdate();
+    }
+
+    // INSERT that returns the auto-generated ID, or -1 if nothing was inserted
+    public int insertAndGetId(String sql, Object... values) throws SQLException {
+        PreparedStatement pstmt = conn.prepareWithKeys(sql);
+        dbConnect.setPreparedStatementValues(pstmt, values);
+        writes.add(sql);
+        if (pstmt.executeUpdate() == 0) {
+            return -1;
+        }
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    // Same INSERT for many rows via addBatch/executeBatch. Returns the generated ID of every row, in order.
+    // SQLite only reports the last generated key, so the IDs are worked back from it: they are consecutive
+    // because this transaction holds the write lock while the batch runs. That only holds for a plain
+    // INSERT INTO that lets SQLite assign the key (no key column in the list, no OR REPLACE/IGNORE);
+    // anything else is rejected here, or use batchUpdate.
+    public int[] batchInsert(String sql, List<Object[]> rows) throws SQLException {
+        if (!sql.trim().toUpperCase(Locale.ROOT).startsWith("INSERT INTO ")) {
+            throw new SQLException("batchInsert needs a plain INSERT INTO statement: " + sql);
+        }
+        int[] keys = new int[rows.size()];
+        if (rows.isEmpty()) {
+            return keys;
+        }
+
+        int[] counts = executeBatch(sql, rows);
+        for (int count : counts) {
+            if (count == 0) {
+                throw new SQLException("Batch insert skipped a row; generated keys would not line up.");
+            }
+        }
+
+        int lastId;
+        try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+            lastId = rs.next() ? rs.getInt(1) : -1;
+        }
+        int firstId = lastId - keys.length + 1;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = firstId + i;
+        }
+        return keys;
+    }
+
+    // Any statement for many rows via addBatch/executeBatch. Returns the affected row count of each row.
+    public int[] batchUpdate(String sql, List<Object[]> rows) throws SQLException {
+        return rows.isEmpty() ? new int[0] : executeBatch(sql, rows);
+    }
+
+    private int[] executeBatch(String sql, List<Object[]> rows) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(sql);
+        writes.add(sql);
+        for (Object[] row : rows) {
+            dbConnect.setPreparedStatementValues(pstmt, row);
+            pstmt.addBatch();
+        }
+        return pstmt.executeBatch();
+    }
+
+    // SELECT inside the transaction (sees this transaction's own uncommitted writes)
+    public List<Row> fetch(String sql, Object... values) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(sql);
+        dbConnect.setPreparedStatementValues(pstmt, values);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return dbConnect.readRows(rs);
+        }
+    }
+
+    //-----------------------------------------------
+    // COMMIT / ROLLBACK
+    //-----------------------------------------------
+
+    public void commit() throws SQLException {
+        if (finished) {
+            throw new SQLException("Transaction already finished.");
+        }
+        dbConnect.commitWrites(conn);
+        finish();
+        for (String sql : writes) {
+            dbConnect.invalidateCache(sql);
+        }
+    }
+
+    public void rollback() {
+        if (finished) {
+            return;
+        }
+        try {
+            conn.getConnection().rollback();
+        } catch (SQLException e) {
+            System.out.println("Error rolling back transaction: " + e.getMessage());
+        }
+        finish();
+    }
+
+    // Rolls back anything not committed and gives the writer connection back to the pool
+    @Override
+    public void close() {
+        rollback();
+    }
+
+    private void finish() {
+        finished = true;
+        if (OPEN.get() == this) {
+            OPEN.remove();
+        }
+        try {
+            conn.getConnection().setAutoCommit(true);
+        } catch (SQLException e) {
+            // The pool resets the connection on release anyway
+        }
+        conn.close();
+    }
+}
@@ -0,0 +1,245 @@
+package CONFIG;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One thread that performs every single-statement write (addRecord,
+ * updateRecord, deleteRecord, ...) on the pooled writer connection.
+ *
+ * SQLite allows one writer at a time and each commit costs a journal sync, so
+ * instead of every caller committing on its own, queued writes are grouped:
+ * the thread takes the first waiting write, keeps collecting more for up to
+ * groupWindowMillis (or until groupSize writes), runs them all in ONE
+ * transaction and commits once. Each write runs inside its own SAVEPOINT, so
+ * a failing write is rolled back on its own and only its caller sees the
+ * error; the rest of the group still commits.
+ *
+ * Callers get a CompletableFuture that completes after the commit: the
+ * affected row count for updates, the generated key for inserts.
+ *
+ * Group size and window: baklay.write.groupSize=N (default 64) and
+ * baklay.write.groupWindowMs=N (default 5).
+ */
+public class WriteExecutor implements AutoCloseable {
+
+    private enum Kind { UPDATE, INSERT }
+
+    private static final class WriteOp {
+        final Kind kind;
+        final String sql;
+        final Object[] values;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        WriteOp(Kind kind, String sql, Object[] values) {
+            this.kind = kind;
+            this.sql = sql;
+            this.values = values;
+        }
+    }
+
+    // Wakes the writer thread up when close() is called
+    private static final WriteOp STOP = new WriteOp(Kind.UPDATE, "", new Object[0]);
+
+    private final ConnectionPool pool;
+    private final int groupSize;
+    private final long groupWindowNanos;
+    private final BlockingQueue<WriteOp> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    private long commits = 0;
+    private long writes = 0;
+
+    public WriteExecutor(ConnectionPool pool, int groupSize, long groupWindowMillis) {
+        if (groupSize < 1) {
+            throw new IllegalArgumentException("Group size must be at least 1.");
+        }
+        this.pool = pool;
+        this.groupSize = groupSize;
+        this.groupWindowNanos = TimeUnit.MILLISECONDS.toNanos(groupWindowMillis);
+        this.thread = new Thread(this::run, "db-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //-----------------------------------------------
+    // SUBMIT
+    //-----------------------------------------------
+
+    // INSERT/UPDATE/DELETE; completes with the number of affected rows
+    public CompletableFuture<Integer> update(String sql, Object... values) {
+        return submit(new WriteOp(Kind.UPDATE, sql, values));
+    }
+
+    // INSERT; completes with the generated key (-1 if nothing was inserted)
+    public CompletableFuture<Integer> insert(String sql, Object... values) {
+        return submit(new WriteOp(Kind.INSERT, sql, values));
+    }
+
+    private CompletableFuture<Integer> submit(WriteOp op) {
+        if (closed) {
+            op.result.completeExceptionally(new SQLException("Write executor is closed."));
+            return op.result;
+        }
+        if (Thread.currentThread() == thread) {
+            // A write issued from the writer thread itself would wait for itself forever
+            op.result.completeExceptionally(new SQLException("Nested write from the writer thread."));
+            return op.result;
+        }
+        queue.add(op);
+        return op.result;
+    }
+
+    //-----------------------------------------------
+    // WRITER THREAD
+    //-----------------------------------------------
+
+    private void run() {
+        List<WriteOp> group = new ArrayList<>(groupSize);
+        try {
+            while (true) {
+                group.clear();
+                if (!collectGroup(group)) {
+                    break;
+                }
+                if (!group.isEmpty()) {
+                    runGroup(group);
+                }
+            }
+        } catch (InterruptedException e) {
+            failAll(group, new SQLException("Writer thread interrupted.", e));
+        }
+        // Anything that slipped in while closing is refused rather than left waiting forever
+        List<WriteOp> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.remove(STOP);
+        failAll(leftover, new SQLException("Write executor is closed."));
+    }
+
+    // Blocks for the first write, then gathers more until the group is full or the window is over.
+    // Returns false once the executor is closed and the queue is drained.
+    private boolean collectGroup(List<WriteOp> group) throws InterruptedException {
+        WriteOp first = queue.take();
+        if (first == STOP) {
+            return !queue.isEmpty() && collectGroup(group);
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + groupWindowNanos;
+        while (group.size() < groupSize) {
+            long remaining = deadline - System.nanoTime();
+            WriteOp next = (remaining > 0) ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            if (next == STOP) {
+                queue.add(STOP); // finish this group first, stop afterwards
+                break;
+            }
+            group.add(next);
+        }
+        return true;
+    }
+
+    private void runGroup(List<WriteOp> group) {
+        int[] results = new int[group.size()];
+        SQLException[] errors = new SQLException[group.size()];
+
+        try (PooledConnection conn = pool.acquireWriter()) {
+            conn.getConnection().setAutoCommit(false);
+            try (Statement st = conn.getConnection().createStatement()) {
+                for (int i = 0; i < group.size(); i++) {
+                    WriteOp op = group.get(i);
+                    st.execute("SAVEPOINT write_op");
+                    try {
+                        results[i] = execute(conn, op);
+                        st.execute("RELEASE write_op");
+                    } catch (SQLException e) {
+                        // Undo just this write; the others in the group are unaffected
+                        st.execute("ROLLBACK TO write_op");
+                        st.execute("RELEASE write_op");
+                        errors[i] = e;
+                    }
+                }
+                dbConnect.commitWrites(conn);
+            } catch (SQLException e) {
+                conn.getConnection().rollback();
+                throw e;
+            } finally {
+                conn.getConnection().setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // Commit (or the connection) failed: nothing in the group was saved
+            failAll(group, e);
+            return;
+        }
+
+        synchronized (this) {
+            commits++;
+            writes += group.size();
+        }
+        for (int i = 0; i < group.size(); i++) {
+            WriteOp op = group.get(i);
+            if (errors[i] != null) {
+                op.result.completeExceptionally(errors[i]);
+            } else {
+                dbConnect.invalidateCache(op.sql);
+                op.result.complete(results[i]);
+            }
+        }
+    }
+
+    private static int execute(PooledConnection conn, WriteOp op) throws SQLException {
+        if (op.kind == Kind.UPDATE) {
+            PreparedStatement pstmt = conn.prepare(op.sql);
+            dbConnect.setPreparedStatementValues(pstmt, op.values);
+            return pstmt.executeUpdate();
+        }
+        PreparedStatement pstmt = conn.prepareWithKeys(op.sql);
+        dbConnect.setPreparedStatementValues(pstmt, op.values);
+        if (pstmt.executeUpdate() == 0) {
+            return -1;
+        }
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    private static void failAll(List<WriteOp> group, SQLException e) {
+        for (WriteOp op : group) {
+            op.result.completeExceptionally(e);
+        }
+    }
+
+    //-----------------------------------------------
+    // STATS / SHUTDOWN
+    //-----------------------------------------------
+
+    // Writes per commit so far (1.0 = no grouping happened)
+    public synchronized double getAverageGroupSize() {
+        return commits == 0 ? 0.0 : (double) writes / commits;
+    }
+
+    // Finishes everything already queued, then stops the thread
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(STOP);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,141 +1,484 @@
 package CONFIG;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.LinkedHashMap; // Important for maintaining column order during width calculation
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class dbConnect {
 
+    static {
+        try {
+            Class.forName("org.sqlite.JDBC"); // Load the SQLite JDBC driver once per JVM
+        } catch (ClassNotFoundException e) {
+            System.out.println("SQLite JDBC driver not found: " + e);
+        }
+    }
+
+    // Opens a brand new (unpooled) connection. dbConnect's own methods use the pool below.
+    // Path and PRAGMA profile (WAL, synchronous, cache/mmap size, ...) come from DbConfig.
     public static Connection connectDB() {
         Connection con = null;
         try {
-            Class.forName("org.sqlite.JDBC"); // Load the SQLite JDBC driver
-            con = DriverManager.getConnection("jdbc:sqlite:baklay.db"); // Establish connection
+            con = DriverManager.getConnection(DbConfig.getJdbcUrl()); // Establish connection
+            DbConfig.apply(con);
             //System.out.println("Connection Successful");
         } catch (Exception e) {
             System.out.println("Connection Failed: " + e);
+            if (con != null) {
+                try {
+                    con.close();
+                } catch (SQLException ignored) {
+                    // already failing
+                }
+                con = null;
+            }
         }
         return con;
     }
 
-    public void addRecord(String sql, Object... values) {
-        try (Connection conn = this.connectDB(); // Use the connectDB method
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    //-----------------------------------------------
+    // CONNECTION POOL
+    //-----------------------------------------------
 
-            // Loop through the values and set them in the prepared statement dynamically
-            for (int i = 0; i < values.length; i++) {
-                if (values[i] instanceof Integer) {
-                    pstmt.setInt(i + 1, (Integer) values[i]); // If the value is Integer
-                } else if (values[i] instanceof Double) {
-                    pstmt.setDouble(i + 1, (Double) values[i]); // If the value is Double
-                } else if (values[i] instanceof Float) {
-                    pstmt.setFloat(i + 1, (Float) values[i]); // If the value is Float
-                } else if (values[i] instanceof Long) {
-                    pstmt.setLong(i + 1, (Long) values[i]); // If the value is Long
-                } else if (values[i] instanceof Boolean) {
-                    pstmt.setBoolean(i + 1, (Boolean) values[i]); // If the value is Boolean
-                } else if (values[i] instanceof java.util.Date) {
-                    pstmt.setDate(i + 1, new java.sql.Date(((java.util.Date) values[i]).getTime())); // If the value is Date
-                } else if (values[i] instanceof java.sql.Date) {
-                    pstmt.setDate(i + 1, (java.sql.Date) values[i]); // If it's already a SQL Date
-                } else if (values[i] instanceof java.sql.Timestamp) {
-                    pstmt.setTimestamp(i + 1, (java.sql.Timestamp) values[i]); // If the value is Timestamp
-                } else {
-                    pstmt.setString(i + 1, values[i].toString()); // Default to String for other types
+    // Settings come from DbConfig (system property or baklay.properties).
+    // Pool size can be tuned with baklay.db.readers=N and baklay.db.acquireTimeoutMs=N,
+    // the per-connection PreparedStatement cache with baklay.db.statementCacheSize=N (at least 1:
+    // callers never close cached statements, so there is no uncached mode)
+    private static final class PoolHolder {
+        static final ConnectionPool POOL = createPool();
+
+        private static ConnectionPool createPool() {
+            ConnectionPool pool = new ConnectionPool(
+                    DbConfig.getInt("baklay.db.readers", 4),
+                    DbConfig.getLong("baklay.db.acquireTimeoutMs", 30_000L),
+                    Math.max(1, DbConfig.getInt("baklay.db.statementCacheSize", 32)));
+            // On exit, queued writes are finished before the pool closes
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                WriteExecutor writer = startedWriter;
+                if (writer != null) {
+                    writer.close();
                 }
+                pool.close();
+            }, "db-pool-shutdown"));
+            SchemaMigrator.migrate(pool); // Bring the schema up to date before anyone queries it
+            return pool;
+        }
+    }
+
+    // Single writer thread with group commit (see WriteExecutor), tuned with baklay.write.groupSize=N
+    // and baklay.write.groupWindowMs=N
+    private static volatile WriteExecutor startedWriter;
+
+    private static final class WriterHolder {
+        static final WriteExecutor WRITER = createWriter();
+
+        private static WriteExecutor createWriter() {
+            WriteExecutor writer = new WriteExecutor(getPool(),
+                    DbConfig.getInt("baklay.write.groupSize", 64),
+                    DbConfig.getLong("baklay.write.groupWindowMs", 5L));
+            startedWriter = writer;
+            return writer;
+        }
+    }
+
+    public static WriteExecutor getWriteExecutor() {
+        return WriterHolder.WRITER;
+    }
+
+    // INSERT/UPDATE/DELETE through the writer thread; completes with the affected row count after commit
+    public CompletableFuture<Integer> submitUpdate(String sql, Object... values) {
+        Transaction.checkNoneOpen("A plain dbConnect write");
+        return getWriteExecutor().update(sql, values);
+    }
+
+    // INSERT through the writer thread; completes with the generated key after commit
+    public CompletableFuture<Integer> submitInsert(String sql, Object... values) {
+        Transaction.checkNoneOpen("A plain dbConnect write");
+        return getWriteExecutor().insert(sql, values);
+    }
+
+    // Waits for a submitted write or async read; the SQLException behind a failure is rethrown as is
+    public static <T> T await(CompletableFuture<T> pending) throws SQLException {
+        try {
+            return pending.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedSQLException) {
+                throw ((UncheckedSQLException) e.getCause()).getCause();
+            }
+            throw new SQLException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database.", e);
+        }
+    }
+
+    public static ConnectionPool getPool() {
+        return PoolHolder.POOL;
+    }
+
+    //-----------------------------------------------
+    // ASYNCHRONOUS API
+    //-----------------------------------------------
+
+    // Reads run on virtual threads when the JVM has them (a fixed pool otherwise), at most one per
+    // reader connection at a time. Writes already run on the writer thread, so they need no thread.
+    private static final class AsyncHolder {
+        static final AsyncExecutor ASYNC = createAsync();
+
+        private static AsyncExecutor createAsync() {
+            AsyncExecutor async = new AsyncExecutor(getPool().getMaxReaders());
+            Runtime.getRuntime().addShutdownHook(new Thread(async::close, "db-async-shutdown"));
+            return async;
+        }
+    }
+
+    public static AsyncExecutor getAsyncExecutor() {
+        return AsyncHolder.ASYNC;
+    }
+
+    // Same rows as fetchRecords, without blocking the caller. A failed query completes the future
+    // exceptionally with its SQLException instead of printing it and returning an empty list.
+    public CompletableFuture<List<Row>> fetchAsync(String sqlQuery, Object... values) {
+        return getAsyncExecutor().submit(() -> queryRows(DEFAULT_CACHE_TTL_MS, sqlQuery, values));
+    }
+
+    // Same as fetchAsync, answered from the query cache within ttlMillis (see fetchRecordsCached)
+    public CompletableFuture<List<Row>> fetchCachedAsync(long ttlMillis, String sqlQuery, Object... values) {
+        return getAsyncExecutor().submit(() -> queryRows(ttlMillis, sqlQuery, values));
+    }
+
+    // INSERT/UPDATE/DELETE; completes with the affected row count once committed
+    public CompletableFuture<Integer> updateAsync(String sql, Object... values) {
+        return submitUpdate(sql, values);
+    }
+
+    // INSERT; completes with the generated key once committed
+    public CompletableFuture<Integer> insertAsync(String sql, Object... values) {
+        return submitInsert(sql, values);
+    }
+
+    //-----------------------------------------------
+    // CHANGES FROM OTHER PROCESSES
+    //-----------------------------------------------
+
+    private static final class MonitorHolder {
+        static final DataVersionMonitor MONITOR = createMonitor();
+
+        private static DataVersionMonitor createMonitor() {
+            getPool(); // migrations (and with them the change-counter triggers) run first
+            try {
+                DataVersionMonitor monitor = new DataVersionMonitor(DataVersionMonitor.DEFAULT_POLL_MILLIS);
+                Runtime.getRuntime().addShutdownHook(new Thread(monitor::close, "db-change-monitor-shutdown"));
+                startedMonitor = monitor;
+                return monitor;
+            } catch (SQLException e) {
+                System.out.println("Change monitoring disabled: " + e.getMessage());
+                return null;
             }
+        }
+    }
+
+    // Set once the monitor runs; commits must not start it themselves
+    private static volatile DataVersionMonitor startedMonitor;
 
-            pstmt.executeUpdate();
+    // Shared monitor for caches that must notice writes from other terminals; null if it could not start
+    public static DataVersionMonitor getChangeMonitor() {
+        return MonitorHolder.MONITOR;
+    }
+
+    // Every commit on the writer connection goes through here, so the monitor can tell our own
+    // writes from other processes' (see DataVersionMonitor.commitOwnWrites)
+    static void commitWrites(PooledConnection conn) throws SQLException {
+        DataVersionMonitor monitor = startedMonitor;
+        if (monitor == null) {
+            conn.getConnection().commit();
+        } else {
+            monitor.commitOwnWrites(conn.getConnection());
+        }
+    }
+
+    //-----------------------------------------------
+    // QUERY RESULT CACHE
+    //-----------------------------------------------
+
+    // Up to baklay.queryCache.size=N results (0 turns caching off). Plain fetchRecords/viewRecords
+    // cache for baklay.queryCache.ttlMs=N (default 0: only the *Cached methods and pagers that ask
+    // for it use the cache).
+    private static final long DEFAULT_CACHE_TTL_MS = DbConfig.getLong("baklay.queryCache.ttlMs", 0L);
+
+    private static final class CacheHolder {
+        static final QueryCache CACHE = createCache();
+
+        private static QueryCache createCache() {
+            QueryCache cache = new QueryCache(DbConfig.getInt("baklay.queryCache.size", 256));
+            if (cache.isEnabled()) {
+                // Writes from other terminals drop the affected results too
+                DataVersionMonitor monitor = getChangeMonitor();
+                if (monitor != null) {
+                    for (String table : SchemaMigrator.TRACKED_TABLES) {
+                        monitor.onChange(table, () -> cache.invalidateTable(table));
+                    }
+                }
+            }
+            return cache;
+        }
+    }
+
+    public static QueryCache getQueryCache() {
+        return CacheHolder.CACHE;
+    }
+
+    // After a successful write: drop cached results that read the written table
+    static void invalidateCache(String writeSql) {
+        getQueryCache().invalidateWrite(writeSql);
+    }
+
+    private static PooledConnection reader() throws SQLException {
+        return PoolHolder.POOL.acquireReader();
+    }
+
+    private static PooledConnection writer() throws SQLException {
+        return PoolHolder.POOL.acquireWriter();
+    }
+
+    public void addRecord(String sql, Object... values) {
+        try {
+            // Queued on the writer thread and committed together with other waiting writes
+            await(submitUpdate(sql, values));
             System.out.println("Record added successfully!");
         } catch (SQLException e) {
             System.out.println("Error adding record: " + e.getMessage());
         }
     }
 
-    // ⭐ HELPER METHOD FOR ALIGNMENT ⭐
-    private String createSeparator(Map<String, Integer> columnWidths, String[] headers) {
-        StringBuilder sb = new StringBuilder("+");
-        for (String header : headers) {
-            // Width is the calculated max width + 2 spaces of padding (one on each side)
-            int width = columnWidths.get(header) + 2;
-            for (int i = 0; i < width; i++) {
-                sb.append("-");
+    //-----------------------------------------------
+    // VIEW (TABLE RENDERING) METHODS
+    //-----------------------------------------------
+
+    // Column widths are taken from at most this many leading rows; later rows are streamed straight out
+    private static final int WIDTH_SAMPLE_ROWS = DbConfig.getInt("baklay.view.sampleRows", 100);
+    // Cells longer than this are cut off with "..." so one long value can't stretch the whole table
+    private static final int MAX_CELL_WIDTH = DbConfig.getInt("baklay.view.maxCellWidth", 50);
+
+    // Where renderTable() gets its rows from: a live ResultSet or an already fetched (cached) list
+    private interface CellSource {
+        boolean next() throws SQLException;
+
+        String[] cells() throws SQLException;
+
+        void remember(KeysetPager pager) throws SQLException;
+    }
+
+    private static final class ResultSetSource implements CellSource {
+        private final ResultSet rs;
+        private final int[] columnIndexes;
+
+        ResultSetSource(ResultSet rs, String[] columnNames) throws SQLException {
+            this.rs = rs;
+            // Look the columns up once instead of by name for every cell
+            this.columnIndexes = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                columnIndexes[i] = rs.findColumn(columnNames[i]);
             }
-            sb.append("+");
         }
-        return sb.toString();
+
+        public boolean next() throws SQLException {
+            return rs.next();
+        }
+
+        public String[] cells() throws SQLException {
+            String[] cells = new String[columnIndexes.length];
+            for (int i = 0; i < columnIndexes.length; i++) {
+                Object value = rs.getObject(columnIndexes[i]);
+                cells[i] = (value == null) ? "NULL" : value.toString();
+            }
+            return cells;
+        }
+
+        public void remember(KeysetPager pager) throws SQLException {
+            pager.remember(rs);
+        }
     }
-    
+
+    private static final class RowListSource implements CellSource {
+        private final List<Row> rows;
+        private final String[] columnNames;
+        private int position = -1;
+
+        RowListSource(List<Row> rows, String[] columnNames) throws SQLException {
+            this.rows = rows;
+            this.columnNames = columnNames;
+            if (!rows.isEmpty()) {
+                for (String column : columnNames) {
+                    if (rows.get(0).getHeader().indexOf(column) < 0) {
+                        throw new SQLException("no such column: '" + column + "'");
+                    }
+                }
+            }
+        }
+
+        public boolean next() {
+            return ++position < rows.size();
+        }
+
+        public String[] cells() {
+            Row row = rows.get(position);
+            String[] cells = new String[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                Object value = row.get(columnNames[i]);
+                cells[i] = (value == null) ? "NULL" : value.toString();
+            }
+            return cells;
+        }
+
+        public void remember(KeysetPager pager) {
+            pager.remember(rows.get(position));
+        }
+    }
+
     // Dynamic view method to display records from any table
     public void viewRecords(String sqlQuery, String[] columnHeaders, String[] columnNames) {
+        viewRecords(sqlQuery, columnHeaders, columnNames, null);
+    }
+
+    // Same as above, with optional width hints (one per column, 0 = size from data) and query parameters.
+    // Widths come from the headers, the hints and a bounded sample of leading rows; everything after the
+    // sample is written straight to a buffered writer, so memory use doesn't grow with the table.
+    // Returns the number of rows printed.
+    public long viewRecords(String sqlQuery, String[] columnHeaders, String[] columnNames,
+                            int[] widthHints, Object... params) {
+        return renderQuery(sqlQuery, params, columnHeaders, columnNames, widthHints, null, DEFAULT_CACHE_TTL_MS);
+    }
+
+    // viewRecords answered from the query cache for ttlMillis (for small lists shown again and again)
+    public long viewRecordsCached(long ttlMillis, String sqlQuery, String[] columnHeaders, String[] columnNames,
+                                  Object... params) {
+        return renderQuery(sqlQuery, params, columnHeaders, columnNames, null, null, ttlMillis);
+    }
+
+    // Prints the pager's current page (page size rows at most) and records its last key,
+    // so pager.next()/previous() can move on. Returns the number of rows printed.
+    public long viewRecordsPage(KeysetPager pager, String[] columnHeaders, String[] columnNames, int[] widthHints) {
+        return renderQuery(pager.pageSql(), pager.pageParams(), columnHeaders, columnNames, widthHints, pager,
+                pager.getCacheTtlMillis());
+    }
+
+    private long renderQuery(String sqlQuery, Object[] params, String[] columnHeaders, String[] columnNames,
+                             int[] widthHints, KeysetPager pager, long cacheTtlMillis) {
         // Check that columnHeaders and columnNames arrays are the same length
-        if (columnHeaders.length != columnNames.length) {
+        if (columnHeaders.length != columnNames.length
+                || (widthHints != null && widthHints.length != columnNames.length)) {
             System.out.println("Error: Mismatch between column headers and column names.");
-            return;
+            return 0;
         }
 
-        try (Connection conn = this.connectDB();
-             PreparedStatement pstmt = conn.prepareStatement(sqlQuery);
-             ResultSet rs = pstmt.executeQuery()) {
+        System.out.flush(); // Keep anything already printed ahead of the table
+        Writer out = TableRenderer.systemOut(); // TableRenderer does the buffering; System.out does the encoding
 
-            // 1. Calculate Max Width for each column
-            Map<String, Integer> columnWidths = new LinkedHashMap<>();
-            for (String header : columnHeaders) {
-                // Initialize width based on header length
-                columnWidths.put(header, header.length()); 
+        try {
+            if (cacheTtlMillis > 0 && getQueryCache().isEnabled()) {
+                // Small, often repeated lists: render from the cached rows
+                List<Row> rows = queryRows(cacheTtlMillis, sqlQuery, params);
+                return renderTable(new RowListSource(rows, columnNames), columnHeaders, widthHints, pager, out);
             }
-            
-            // Store all rows for later printing and calculate true max width
-            List<Map<String, String>> records = new ArrayList<>();
-            while (rs.next()) {
-                Map<String, String> row = new LinkedHashMap<>();
-                for (int i = 0; i < columnNames.length; i++) {
-                    String header = columnHeaders[i];
-                    String colName = columnNames[i];
-                    
-                    Object value = rs.getObject(colName);
-                    String valStr = (value == null) ? "NULL" : value.toString();
-                    
-                    row.put(header, valStr); // Store data mapped to the header
-                    
-                    // Update max width if the current string is longer
-                    int currentWidth = columnWidths.get(header);
-                    if (valStr.length() > currentWidth) {
-                        columnWidths.put(header, valStr.length());
-                    }
+            try (PooledConnection conn = reader()) {
+                PreparedStatement pstmt = conn.prepare(sqlQuery);
+                setPreparedStatementValues(pstmt, params);
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return renderTable(new ResultSetSource(rs, columnNames), columnHeaders, widthHints, pager, out);
                 }
-                records.add(row);
             }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving records: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error printing records: " + e.getMessage());
+        } finally {
+            try {
+                out.flush(); // Only flush: closing would close System.out
+            } catch (IOException e) {
+                // Nothing more we can print to
+            }
+        }
+        return 0;
+    }
 
+    private static long renderTable(CellSource source, String[] columnHeaders, int[] widthHints,
+                                    KeysetPager pager, Writer out) throws SQLException, IOException {
+        long maxRows = (pager == null) ? Long.MAX_VALUE : pager.getPageSize();
+        long printed = 0;
+
+        // 1. Calculate width for each column: header, hint, then the sample rows
+        int[] widths = new int[columnHeaders.length];
+        boolean allHinted = widthHints != null;
+        for (int i = 0; i < columnHeaders.length; i++) {
+            int hint = (widthHints == null) ? 0 : widthHints[i];
+            widths[i] = Math.max(columnHeaders[i].length(), hint);
+            allHinted &= hint > 0;
+        }
 
-            // 2. Build the Format String and Separator
-            StringBuilder formatBuilder = new StringBuilder("|");
-            for (String header : columnHeaders) {
-                // Use the calculated max width for left-justification
-                formatBuilder.append(" %-").append(columnWidths.get(header)).append("s |"); 
+        List<String[]> sample = new ArrayList<>();
+        long read = 0;
+        boolean more = source.next();
+        while (more && !allHinted && sample.size() < WIDTH_SAMPLE_ROWS && read < maxRows) {
+            String[] cells = source.cells();
+            for (int i = 0; i < cells.length; i++) {
+                widths[i] = Math.max(widths[i], cells[i].length());
             }
-            String formatString = formatBuilder.toString();
-            String separator = createSeparator(columnWidths, columnHeaders);
-            
-            // 3. Print Headers and Separator
-            System.out.println(separator);
-            System.out.println(String.format(formatString, (Object[])columnHeaders));
-            System.out.println(separator);
-
-            // 4. Print Records
-            for (Map<String, String> record : records) {
-                Object[] values = record.values().toArray();
-                System.out.println(String.format(formatString, values));
+            sample.add(cells);
+            if (pager != null) {
+                source.remember(pager);
             }
-            System.out.println(separator);
+            read++;
+            more = source.next();
+        }
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = Math.min(widths[i], Math.max(MAX_CELL_WIDTH, columnHeaders[i].length()));
+        }
 
+        // 2. Print Headers and Separator (cells longer than their column are cut off with "...")
+        TableRenderer table = new TableRenderer(true, widths);
+        table.header((Object[]) columnHeaders);
 
-        } catch (SQLException e) {
-            System.out.println("Error retrieving records: " + e.getMessage());
+        // 3. Print the sampled rows, then stream the rest; the buffer goes out every few KB
+        for (String[] cells : sample) {
+            table.row((Object[]) cells);
+            printed++;
+        }
+        sample.clear();
+        table.writeTo(out);
+        while (more && read < maxRows) {
+            table.row((Object[]) source.cells());
+            if (table.pending() >= TableRenderer.FLUSH_THRESHOLD) {
+                table.writeTo(out);
+            }
+            if (pager != null) {
+                source.remember(pager);
+            }
+            read++;
+            printed++;
+            more = source.next();
         }
+        table.separator().writeTo(out);
+
+        // Anything left over means there is another page
+        if (pager != null) {
+            pager.pageLoaded(more);
+        }
+        return printed;
     }
 
 
@@ -144,33 +487,8 @@ public class dbConnect {
     //-----------------------------------------------
 
     public void updateRecord(String sql, Object... values) {
-        try (Connection conn = this.connectDB(); // Use the connectDB method
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Loop through the values and set them in the prepared statement dynamically
-            for (int i = 0; i < values.length; i++) {
-                if (values[i] instanceof Integer) {
-                    pstmt.setInt(i + 1, (Integer) values[i]); // If the value is Integer
-                } else if (values[i] instanceof Double) {
-                    pstmt.setDouble(i + 1, (Double) values[i]); // If the value is Double
-                } else if (values[i] instanceof Float) {
-                    pstmt.setFloat(i + 1, (Float) values[i]); // If the value is Float
-                } else if (values[i] instanceof Long) {
-                    pstmt.setLong(i + 1, (Long) values[i]); // If the value is Long
-                } else if (values[i] instanceof Boolean) {
-                    pstmt.setBoolean(i + 1, (Boolean) values[i]); // If the value is Boolean
-                } else if (values[i] instanceof java.util.Date) {
-                    pstmt.setDate(i + 1, new java.sql.Date(((java.util.Date) values[i]).getTime())); // If the value is Date
-                } else if (values[i] instanceof java.sql.Date) {
-                    pstmt.setDate(i + 1, (java.sql.Date) values[i]); // If it's already a SQL Date
-                } else if (values[i] instanceof java.sql.Timestamp) {
-                    pstmt.setTimestamp(i + 1, (java.sql.Timestamp) values[i]); // If the value is Timestamp
-                } else {
-                    pstmt.setString(i + 1, values[i].toString()); // Default to String for other types
-                }
-            }
-
-            pstmt.executeUpdate();
+        try {
+            await(submitUpdate(sql, values)); // Through the writer thread (group commit)
             System.out.println("Record updated successfully!");
         } catch (SQLException e) {
             System.out.println("Error updating record: " + e.getMessage());
@@ -179,19 +497,8 @@ public class dbConnect {
 
     // Add this method in the config class
     public void deleteRecord(String sql, Object... values) {
-        try (Connection conn = this.connectDB();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Loop through the values and set them in the prepared statement dynamically
-            for (int i = 0; i < values.length; i++) {
-                if (values[i] instanceof Integer) {
-                    pstmt.setInt(i + 1, (Integer) values[i]); // If the value is Integer
-                } else {
-                    pstmt.setString(i + 1, values[i].toString()); // Default to String for other types
-                }
-            }
-
-            pstmt.executeUpdate();
+        try {
+            await(submitUpdate(sql, values)); // Through the writer thread (group commit)
             System.out.println("Record deleted successfully!");
         } catch (SQLException e) {
             System.out.println("Error deleting record: " + e.getMessage());
@@ -199,42 +506,186 @@ public class dbConnect {
     }
 
 
-    public java.util.List<java.util.Map<String, Object>> fetchRecords(String sqlQuery, Object... values) {
-        java.util.List<java.util.Map<String, Object>> records = new java.util.ArrayList<>();
+    // Rows share one column header; read values with row.getInt("col"), row.getString("col"), ...
+    public List<Row> fetchRecords(String sqlQuery, Object... values) {
+        return fetchRecordsCached(DEFAULT_CACHE_TTL_MS, sqlQuery, values);
+    }
 
-        try (Connection conn = this.connectDB();
-             PreparedStatement pstmt = conn.prepareStatement(sqlQuery)) {
+    // Same as fetchRecords, but the same SQL + values within ttlMillis is answered from the query cache
+    // (until something writes to one of its tables). The returned list is read-only when cached.
+    public List<Row> fetchRecordsCached(long ttlMillis, String sqlQuery, Object... values) {
+        try {
+            return queryRows(ttlMillis, sqlQuery, values);
+        } catch (SQLException e) {
+            System.out.println("Error fetching records: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // Same as fetchRecords, but a failed query is thrown instead of printed and returned as an empty list,
+    // for callers that must not mistake an error for "no rows" (the in-memory caches, the HTTP API)
+    public List<Row> queryRecords(String sqlQuery, Object... values) throws SQLException {
+        return queryRows(DEFAULT_CACHE_TTL_MS, sqlQuery, values);
+    }
+
+    // Errors are thrown (and never cached)
+    private static List<Row> queryRows(long ttlMillis, String sqlQuery, Object[] values) throws SQLException {
+        QueryCache cache = (ttlMillis > 0) ? getQueryCache() : null;
+        long generation = 0;
+        if (cache != null && cache.isEnabled()) {
+            List<Row> cached = cache.get(sqlQuery, values);
+            if (cached != null) {
+                return cached;
+            }
+            generation = cache.generation();
+        }
+
+        List<Row> records;
+        try (PooledConnection conn = reader()) {
+            PreparedStatement pstmt = conn.prepare(sqlQuery);
 
             for (int i = 0; i < values.length; i++) {
                 pstmt.setObject(i + 1, values[i]);
             }
 
-            ResultSet rs = pstmt.executeQuery();
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
+            // Close the ResultSet right away so the cached statement releases its read lock
+            try (ResultSet rs = pstmt.executeQuery()) {
+                records = readRows(rs);
+            }
+        }
+
+        if (cache != null && cache.isEnabled()) {
+            return cache.put(sqlQuery, values, records, ttlMillis, generation);
+        }
+        return records;
+    }
+
+    // Copies every row of the ResultSet into a Row; all rows share one Header
+    static List<Row> readRows(ResultSet rs) throws SQLException {
+        List<Row> records = new ArrayList<>();
+        Row.Header header = new Row.Header(columnNames(rs));
 
-            while (rs.next()) {
-                java.util.Map<String, Object> row = new java.util.HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    row.put(metaData.getColumnName(i), rs.getObject(i));
+        while (rs.next()) {
+            records.add(readRow(rs, header));
+        }
+        return records;
+    }
+
+    static Row readRow(ResultSet rs, Row.Header header) throws SQLException {
+        Object[] values = new Object[header.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return new Row(header, values);
+    }
+
+    //-----------------------------------------------
+    // STREAMING METHODS
+    //-----------------------------------------------
+
+    // How many rows the driver should read ahead per step when streaming
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    // Column names read once per query instead of once per cell
+    static String[] columnNames(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnName(i + 1);
+        }
+        return columns;
+    }
+
+    // Hands every row to the callback as it is read, nothing is collected in memory.
+    // Returns the number of rows seen. Errors are thrown so a half-finished export/report can be detected.
+    public long forEachRecord(String sqlQuery, RowCallback callback, Object... values) throws SQLException {
+        try (PooledConnection conn = reader()) {
+            PreparedStatement pstmt = conn.prepare(sqlQuery);
+            setPreparedStatementValues(pstmt, values);
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+
+            long count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                String[] columns = columnNames(rs);
+                callback.onColumns(columns);
+                while (rs.next()) {
+                    callback.onRow(rs, columns);
+                    count++;
                 }
-                records.add(row);
             }
+            return count;
+        }
+    }
 
+    // Lazily reads the rows as the stream is consumed. The stream holds a reader connection until it is
+    // closed, so ALWAYS use it in try-with-resources:
+    //
+    //   try (Stream<Row> rows = con.streamRecords(sql, param)) { rows.forEach(...); }
+    public Stream<Row> streamRecords(String sqlQuery, Object... values) throws SQLException {
+        PooledConnection conn = reader();
+        ResultSet rs;
+        Row.Header header;
+        try {
+            PreparedStatement pstmt = conn.prepare(sqlQuery);
+            setPreparedStatementValues(pstmt, values);
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            rs = pstmt.executeQuery();
+            header = new Row.Header(columnNames(rs));
         } catch (SQLException e) {
-            System.out.println("Error fetching records: " + e.getMessage());
+            conn.close();
+            throw e;
         }
 
-        return records;
+        Spliterator<Row> rows = new Spliterators.AbstractSpliterator<Row>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Row> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(readRow(rs, header));
+                    return true;
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // Connection goes back to the pool either way
+            } finally {
+                conn.close();
+            }
+        });
+    }
+
+    // Streams can't throw checked exceptions, so SQL errors while reading come out wrapped in this
+    public static class UncheckedSQLException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public UncheckedSQLException(SQLException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
     }
 
 
     //-----------------------------------------------
     // Helper Method for Setting PreparedStatement Values
     //-----------------------------------------------
-    private void setPreparedStatementValues(PreparedStatement pstmt, Object... values) throws SQLException {
+    static void setPreparedStatementValues(PreparedStatement pstmt, Object... values) throws SQLException {
         for (int i = 0; i < values.length; i++) {
-            if (values[i] instanceof Integer) {
+            if (values[i] == null) {
+                pstmt.setNull(i + 1, Types.NULL);
+            } else if (values[i] instanceof Integer) {
                 pstmt.setInt(i + 1, (Integer) values[i]);
             } else if (values[i] instanceof Double) {
                 pstmt.setDouble(i + 1, (Double) values[i]);
@@ -262,13 +713,14 @@ public class dbConnect {
 
     public double getSingleValue(String sql, Object... params) {
         double result = 0.0;
-        try (Connection conn = connectDB();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
 
             setPreparedStatementValues(pstmt, params);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                result = rs.getDouble(1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    result = rs.getDouble(1);
+                }
             }
 
         } catch (SQLException e) {
@@ -279,32 +731,57 @@ public class dbConnect {
 
 
     public int addRecordAndReturnId(String query, Object... params) {
-        int generatedId = -1;
-        try (Connection conn = connectDB();
-             PreparedStatement pstmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS)) {
-
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        generatedId = rs.getInt(1);
-                    }
-                }
-            }
+        try {
+            return await(submitInsert(query, params));
         } catch (SQLException e) {
             System.out.println("Error inserting record: " + e.getMessage());
+            return -1;
         }
-        return generatedId;
     }
     
     
     
 
 
+    //-----------------------------------------------
+    // BATCH INSERT METHOD
+    //-----------------------------------------------
+
+    // Inserts one row per Object[] using the same SQL template, all in a single transaction.
+    // Returns the generated IDs in row order (empty array if the batch failed and was rolled back).
+    public int[] addRecordsBatch(String sql, List<Object[]> rows) {
+        try {
+            int[] keys = inTransaction(tx -> tx.batchInsert(sql, rows));
+            System.out.println(rows.size() + " record(s) added successfully!");
+            return keys;
+        } catch (SQLException e) {
+            System.out.println("Error adding records in batch: " + e.getMessage());
+            return new int[0];
+        }
+    }
+
+    //-----------------------------------------------
+    // TRANSACTIONS
+    //-----------------------------------------------
+
+    // Starts a transaction on the writer connection. Use it in try-with-resources and call commit();
+    // anything not committed is rolled back when the block ends. Until then this thread must write
+    // through tx only: plain writes (addRecord, updateRecord, deleteRecord, submitUpdate/submitInsert)
+    // and a nested beginTransaction() throw IllegalStateException rather than wait on the writer it holds.
+    public Transaction beginTransaction() throws SQLException {
+        Transaction.checkNoneOpen("Starting a second transaction");
+        return new Transaction(writer());
+    }
+
+    // Runs the work in one transaction: commits if it returns normally, rolls back if it throws
+    public <T> T inTransaction(Transaction.Work<T> work) throws SQLException {
+        try (Transaction tx = beginTransaction()) {
+            T result = work.run(tx);
+            tx.commit();
+            return result;
+        }
+    }
+
     // Method to hash passwords using SHA-256
     public static String hashPassword(String password) {
         try {
@@ -329,26 +806,12 @@ public class dbConnect {
     // This method inserts a record and returns the auto-generated ID (e.g., for SQLite or MySQL).
     // It uses PreparedStatement.RETURN_GENERATED_KEYS to retrieve the ID after insertion.
     public int addRecordAndGetId(String sql, Object... values) {
-        int generatedId = -1; // Default to -1 if insertion fails
-        try (Connection conn = this.connectDB();
-             PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-
-            // Set the values in the prepared statement dynamically
-            setPreparedStatementValues(pstmt, values);
-
-            // Execute the update
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                // Retrieve the generated keys (auto-incremented ID)
-                try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        generatedId = rs.getInt(1); // Get the first generated key (the ID)
-                    }
-                }
-            }
+        try {
+            // Runs on the writer thread; the ID is the generated key of the INSERT
+            return await(submitInsert(sql, values));
         } catch (SQLException e) {
             System.out.println("Error inserting record and getting ID: " + e.getMessage());
+            return -1;
         }
-        return generatedId;
     }
 }
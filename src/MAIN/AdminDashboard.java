@@ -1,18 +1,55 @@
 package Main;
 
+import CONFIG.Transaction;
+import CONFIG.KeysetPager;
+import CONFIG.Row;
+import CONFIG.TableRenderer;
 import CONFIG.dbConnect;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Scanner;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern; // Added for date validation
 
 public class AdminDashboard {
 
     private final Scanner sc;
     private final dbConnect con;
+
+    // User list is shown before and after every approval; an approval (a write to table_user) drops it
+    private static final long USERS_CACHE_TTL_MS = 10_000;
     
-    // Basic date pattern YYYY-MM-DD for validation
-    private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+    // SQL shared with ApiServer
+    static final String USERS_SQL = "SELECT u_id, u_name, u_email, u_contact, u_type, u_status FROM table_user";
+    static final String APPROVE_USER_SQL = "UPDATE table_user SET u_status = ? WHERE u_id = ?";
+    static final String CHECK_BOOKING_SQL = "SELECT s_id FROM table_bookings WHERE b_id = ?";
+    // Current guide of a booking's schedule, looked up by booking ID
+    static final String BOOKING_GUIDE_SQL = "SELECT s.guide_id, u.u_name FROM table_bookings b " +
+            "JOIN table_schedules s ON b.s_id = s.s_id " +
+            "LEFT JOIN table_user u ON s.guide_id = u.u_id WHERE b.b_id = ?";
+    static final String AVAILABLE_GUIDES_SQL = "SELECT u_id, u_name FROM table_user WHERE u_type = 'Guide' AND u_status = 'Approved'";
+    static final String ASSIGN_GUIDE_SQL = "UPDATE table_schedules SET guide_id = ? WHERE s_id = ?";
+    static final String APPROVE_BOOKING_SQL = "UPDATE table_bookings SET b_status = ? WHERE b_id = ?";
+
+    private static final TableRenderer.Layout TREKS_LAYOUT = new TableRenderer.Layout(8, 10, 45, 12, 10);
+
+    // Basic date pattern YYYY-MM-DD for validation (also used by BulkImporter)
+    static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+
+    // Dates are stored as ISO text (YYYY-MM-DD) so they compare and sort correctly; reject impossible days
+    static boolean isCalendarDate(String date) {
+        try {
+            LocalDate.parse(date);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
 
     // Constructor to receive the necessary objects (Scanner and DB connection)
     public AdminDashboard(Scanner sc, dbConnect con) {
@@ -22,38 +59,44 @@ public class AdminDashboard {
 
     // --- UTILITY VIEW METHODS ---
 
-    // Helper method to create separator lines for the tables (for manual printing if needed)
-    private static String createSeparator(int width) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < width; i++) {
-            sb.append("-");
-        }
-        return sb.toString();
+    // Pages through a list with Next/Previous; each page is one keyset query (see KeysetPager).
+    // Returns anything else typed at the pager prompt (see PagedView.readId).
+    private String browse(String title, String footer, KeysetPager pager, String[] headers, String[] columns) {
+        return PagedView.browse(sc, pager, () -> {
+            System.out.println(title);
+            // Alignment MUST be handled within con.viewRecordsPage()
+            con.viewRecordsPage(pager, headers, columns, null);
+            System.out.println(footer);
+        });
     }
-    
-    private void viewUsers() {
-        String query = "SELECT u_id, u_name, u_email, u_contact, u_type, u_status FROM table_user";
+
+    private String viewUsers() {
         String[] headers = {"ID", "Name", "Email", "Contact", "Type", "Status"};
         String[] columns = {"u_id", "u_name", "u_email", "u_contact", "u_type", "u_status"};
-        System.out.println("\n--- All System Users ---");
-        // Alignment MUST be handled within con.viewRecords()
-        con.viewRecords(query, headers, columns); 
-        System.out.println("------------------------");
+        return browse("\n--- All System Users ---", "------------------------",
+                new KeysetPager(USERS_SQL, null, "u_id", "u_id").cacheFor(USERS_CACHE_TTL_MS), headers, columns);
     }
 
-    // View Treks (unfiltered)
+    // View Treks (unfiltered) - from the in-memory catalog, no query
     private void viewTreks() {
-        String query = "SELECT * FROM tables_treks";
-        String[] headers = {"Trek ID", "Code", "Description", "Difficulty", "Price"};
-        String[] columns = {"t_id", "t_code", "t_desc", "t_difficulty", "t_price"};
+        List<TrekCatalog.Trek> treks = TrekCatalog.shared(con).all();
         System.out.println("\n--- All Available Treks ---");
-        // Alignment MUST be handled within con.viewRecords()
-        con.viewRecords(query, headers, columns);
+        if (treks.isEmpty()) {
+            System.out.println("No records found.");
+        } else {
+            TableRenderer table = TREKS_LAYOUT.newTable();
+            table.header("Trek ID", "Code", "Description", "Difficulty", "Price");
+            for (TrekCatalog.Trek trek : treks) {
+                table.row(trek.getId(), trek.getCode(), trek.getDescription(),
+                        trek.getDifficulty(), trek.getPriceText());
+            }
+            table.separator().print();
+        }
         System.out.println("---------------------------");
     }
 
     // View All Bookings (unfiltered join) - REVISED to use s_id and show guests/price
-    private void viewBookings() {
+    private String viewBookings() {
         String query = "SELECT b.b_id, b.u_id, s.s_id, b.b_guests, b.b_total_price, b.b_status, u.u_name AS customer_name, t.t_desc AS trek_name, gu.u_name AS guide_name " +
                         "FROM table_bookings b " +
                         "JOIN table_user u ON b.u_id = u.u_id " +
@@ -63,10 +106,8 @@ public class AdminDashboard {
                         
         String[] headers = {"Bkg ID", "Cust ID", "Sched ID", "Guests", "Total Price", "Status", "Customer", "Trek", "Guide"};
         String[] columns = {"b_id", "u_id", "s_id", "b_guests", "b_total_price", "b_status", "customer_name", "trek_name", "guide_name"};
-        System.out.println("\n--- All System Bookings ---");
-        // Alignment MUST be handled within con.viewRecords()
-        con.viewRecords(query, headers, columns);
-        System.out.println("---------------------------");
+        return browse("\n--- All System Bookings ---", "---------------------------",
+                new KeysetPager(query, null, "b.b_id", "b_id"), headers, columns);
     }
     
     // View Scheduled Treks
@@ -75,27 +116,25 @@ public class AdminDashboard {
         String query = "SELECT s_id, t.t_desc AS trek_name, s.schedule_date, s.capacity, u.u_name AS guide_name " +
                        "FROM table_schedules s " +
                        "JOIN tables_treks t ON s.t_id = t.t_id " +
-                       "JOIN table_user u ON s.guide_id = u.u_id " +
-                       "ORDER BY s.schedule_date";
+                       "JOIN table_user u ON s.guide_id = u.u_id";
         String[] headers = {"Schedule ID", "Trek Name", "Date", "Capacity", "Guide"};
         String[] columns = {"s_id", "trek_name", "schedule_date", "capacity", "guide_name"};
-        System.out.println("\n--- All Scheduled Treks ---");
-        con.viewRecords(query, headers, columns);
-        System.out.println("---------------------------");
+        // Ordered by date; s_id breaks ties so the page boundary is exact
+        KeysetPager pager = new KeysetPager(query, null,
+                new String[]{"s.schedule_date", "s.s_id"}, new String[]{"schedule_date", "s_id"},
+                KeysetPager.DEFAULT_PAGE_SIZE);
+        browse("\n--- All Scheduled Treks ---", "---------------------------", pager, headers, columns);
     }
 
     // --- PRIVATE HANDLER METHODS ---
 
     private void handleAccountApproval() {
-        viewUsers(); // Show current users before prompting for ID
-        System.out.print("Enter ID to Approve: ");
+        String typed = viewUsers(); // Show current users before prompting for ID
+        Integer ids = PagedView.readId(sc, typed, "Enter ID to Approve: ");
         
         // Input Validation
-        if (sc.hasNextInt()) {
-            int ids = sc.nextInt();
-            sc.nextLine();
-            String sql = "UPDATE table_user SET u_status = ? WHERE u_id = ?";
-            con.updateRecord(sql, "Approved", ids);
+        if (ids != null) {
+            con.updateRecord(APPROVE_USER_SQL, "Approved", ids);
             System.out.println("✅ User ID " + ids + " has been Approved.");
             
             // ⭐ Show the updated table immediately
@@ -103,7 +142,6 @@ public class AdminDashboard {
             
         } else {
             System.out.println("❌ Invalid ID format. Please enter a number.");
-            sc.nextLine();
         }
     }
 
@@ -165,6 +203,7 @@ public class AdminDashboard {
                 
                 String addSql = "INSERT INTO tables_treks (t_code, t_desc, t_difficulty, t_price) VALUES (?, ?, ?, ?)";
                 con.addRecord(addSql, code, desc, diff, price);
+                TrekCatalog.shared(con).refresh(); // keep the cached catalog in step with the table
                 System.out.println("✅ Trek added successfully!");
                 viewTreks(); // Show updated list
                 break;
@@ -187,6 +226,7 @@ public class AdminDashboard {
                     }
                     String upSql = "UPDATE tables_treks SET t_desc = ? WHERE t_id = ?";
                     con.updateRecord(upSql, newDesc, tid);
+                    TrekCatalog.shared(con).refresh();
                     System.out.println("✅ Trek updated successfully!");
                     viewTreks(); // Show updated list
                 } else {
@@ -203,6 +243,7 @@ public class AdminDashboard {
                     sc.nextLine();
                     String delSql = "DELETE FROM tables_treks WHERE t_id = ?";
                     con.deleteRecord(delSql, delTid);
+                    TrekCatalog.shared(con).refresh();
                     System.out.println("✅ Trek deleted successfully!");
                     viewTreks(); // Show updated list
                 } else {
@@ -216,52 +257,74 @@ public class AdminDashboard {
         }
     }
     
+    // Sets the booking to Approved and, if assignGuideId > 0, assigns that guide to its schedule - together
+    // or not at all. Shared with ApiServer.
+    static void approveBooking(dbConnect con, int bookingId, int scheduleId, int assignGuideId) throws SQLException {
+        try (Transaction tx = con.beginTransaction()) {
+            if (assignGuideId > 0) {
+                // Assign guide to the SCHEDULE, not the booking directly
+                tx.update(ASSIGN_GUIDE_SQL, assignGuideId, scheduleId);
+            }
+            tx.update(APPROVE_BOOKING_SQL, "Approved", bookingId);
+            tx.commit();
+        }
+        if (assignGuideId > 0) {
+            // A schedule only shows up for customers once it has a guide
+            AvailabilityIndex.shared(con).refreshSchedule(scheduleId);
+        }
+    }
+
     // REVISED: Booking Assignment now focuses on managing a booking status through a schedule ID
     private void handleBookingAssignment() {
-        viewBookings(); // Show current bookings before prompting for ID
+        String typed = viewBookings(); // Show current bookings before prompting for ID
         
-        System.out.print("Enter Booking ID to update (e.g., set to Approved/Confirmed): ");
-        int bid;
-        if (sc.hasNextInt()) {
-            bid = sc.nextInt();
-            sc.nextLine();
-        } else {
+        Integer bid = PagedView.readId(sc, typed, "Enter Booking ID to update (e.g., set to Approved/Confirmed): ");
+        if (bid == null) {
             System.out.println("❌ Invalid Booking ID format.");
-            sc.nextLine();
             return;
         }
         
-        // 1. Check if booking exists and get its schedule ID
-        String checkBookingQuery = "SELECT s_id FROM table_bookings WHERE b_id = ?";
-        List<Map<String, Object>> bookingResult = con.fetchRecords(checkBookingQuery, bid);
+        // 1. Booking (and its schedule ID) and 2. the schedule's current guide are independent lookups
+        //    by booking ID, so both run at the same time
+        CompletableFuture<List<Row>> bookingLookup = con.fetchAsync(CHECK_BOOKING_SQL, bid);
+        CompletableFuture<List<Row>> guideLookup = con.fetchAsync(BOOKING_GUIDE_SQL, bid);
+
+        List<Row> bookingResult;
+        List<Row> guideCheck;
+        try {
+            bookingResult = dbConnect.await(bookingLookup);
+            guideCheck = dbConnect.await(guideLookup);
+        } catch (SQLException e) {
+            System.out.println("❌ Could not look up Booking ID " + bid + ". Error: " + e.getMessage());
+            return;
+        }
         
         if (bookingResult.isEmpty()) {
             System.out.println("❌ Booking ID " + bid + " not found.");
             return;
         }
+        if (guideCheck.isEmpty()) {
+            System.out.println("❌ Schedule for Booking ID " + bid + " not found.");
+            return;
+        }
         
-        int scheduleId = (int) bookingResult.get(0).get("s_id");
-        
-        // 2. Determine Guide Assignment Status (Is a guide already assigned to the schedule?)
-        String getGuideQuery = "SELECT guide_id, u_name FROM table_schedules s LEFT JOIN table_user u ON s.guide_id = u.u_id WHERE s_id = ?";
-        List<Map<String, Object>> guideCheck = con.fetchRecords(getGuideQuery, scheduleId);
+        int scheduleId = bookingResult.get(0).getInt("s_id");
         
-        int currentGuideId = guideCheck.get(0).get("guide_id") != null ? (int) guideCheck.get(0).get("guide_id") : 0;
-        String currentGuideName = (String) guideCheck.get(0).get("u_name");
+        int currentGuideId = guideCheck.get(0).getInt("guide_id"); // NULL (unassigned) reads as 0
+        String currentGuideName = guideCheck.get(0).getString("u_name");
+        int assignGuideId = 0;
         
         if (currentGuideId == 0) {
             System.out.println("\n⚠️ **NO GUIDE ASSIGNED** to Schedule ID " + scheduleId + ".");
             
             // Show available Guides for assignment
-            String guideQuery = "SELECT u_id, u_name FROM table_user WHERE u_type = 'Guide' AND u_status = 'Approved'";
             String[] guideHeaders = {"ID", "Name"};
             String[] guideColumns = {"u_id", "u_name"};
             System.out.println("\n--- Available Guides ---");
-            con.viewRecords(guideQuery, guideHeaders, guideColumns); 
+            con.viewRecordsCached(USERS_CACHE_TTL_MS, AVAILABLE_GUIDES_SQL, guideHeaders, guideColumns); 
             System.out.println("------------------------");
             
             System.out.print("Enter Guide ID to assign to SCHEDULE " + scheduleId + " (or 0 to skip guide assignment): ");
-            int assignGuideId;
             if (sc.hasNextInt()) {
                 assignGuideId = sc.nextInt(); 
                 sc.nextLine();
@@ -270,21 +333,21 @@ public class AdminDashboard {
                 sc.nextLine();
                 return;
             }
-            
-            if (assignGuideId > 0) {
-                // Assign guide to the SCHEDULE, not the booking directly
-                String assignGuideSql = "UPDATE table_schedules SET guide_id = ? WHERE s_id = ?";
-                con.updateRecord(assignGuideSql, assignGuideId, scheduleId);
-                System.out.println("✅ Guide ID " + assignGuideId + " assigned to Schedule " + scheduleId + ".");
-            }
         } else {
             System.out.println("✅ Guide already assigned to Schedule ID " + scheduleId + ": " + currentGuideName);
         }
 
-        // 3. Update booking status
-        String bookSql = "UPDATE table_bookings SET b_status = ? WHERE b_id = ?";
-        con.updateRecord(bookSql, "Approved", bid); 
-        
+        // 3. Guide assignment + booking status are saved together in one transaction
+        try {
+            approveBooking(con, bid, scheduleId, assignGuideId);
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to approve Booking ID " + bid + ". Nothing was changed. Error: " + e.getMessage());
+            return;
+        }
+
+        if (assignGuideId > 0) {
+            System.out.println("✅ Guide ID " + assignGuideId + " assigned to Schedule " + scheduleId + ".");
+        }
         System.out.println("✅ Booking ID " + bid + " status updated to 'Approved'.");
         
         // ⭐ Show the updated table immediately
@@ -332,6 +395,9 @@ public class AdminDashboard {
                     
                     if (hikeDate.isEmpty() || !DATE_PATTERN.matcher(hikeDate).matches()) {
                         System.out.println("❌ Invalid date format. Please use YYYY-MM-DD.");
+                    } else if (!isCalendarDate(hikeDate)) {
+                        // Matches the pattern but isn't a real day (e.g. 2025-02-30); it would sort wrongly as text
+                        System.out.println("❌ That date does not exist. Please check the month and day.");
                     } else {
                         break;
                     }
@@ -359,7 +425,7 @@ public class AdminDashboard {
                 String[] guideHeaders = {"ID", "Name"};
                 String[] guideColumns = {"u_id", "u_name"};
                 System.out.println("\n--- Available Guides (Optional Assignment) ---");
-                con.viewRecords(guideQuery, guideHeaders, guideColumns);
+                con.viewRecordsCached(USERS_CACHE_TTL_MS, guideQuery, guideHeaders, guideColumns);
                 System.out.println("----------------------------------------------");
                 
                 System.out.print("Enter Guide ID to assign now (or 0 for unassigned): ");
@@ -375,7 +441,12 @@ public class AdminDashboard {
 
                 // 4. Insert the new schedule record
                 String addScheduleSql = "INSERT INTO table_schedules (t_id, schedule_date, capacity, guide_id) VALUES (?, ?, ?, ?)";
-                con.addRecord(addScheduleSql, trekId, hikeDate, capacity, guideId > 0 ? guideId : null); // Use null if guideId is 0
+                int scheduleId = con.addRecordAndGetId(addScheduleSql, trekId, hikeDate, capacity, guideId > 0 ? guideId : null); // Use null if guideId is 0
+                if (scheduleId <= 0) {
+                    System.out.println("❌ Failed to schedule the trek.");
+                    break;
+                }
+                AvailabilityIndex.shared(con).refreshSchedule(scheduleId); // customers see it straight away
                 
                 System.out.println("✅ Trek scheduled successfully!");
                 viewSchedules();
@@ -391,6 +462,76 @@ public class AdminDashboard {
         }
     }
 
+    // Export a dataset to CSV/NDJSON (optionally .gz), streamed straight to the file
+    private void handleExport() {
+        System.out.println("\n--- Export Data ---");
+        System.out.print("Dataset (bookings/schedules/treks/users/manifests): ");
+        DataExporter.Dataset dataset = DataExporter.Dataset.parse(sc.nextLine());
+        if (dataset == null) {
+            System.out.println("❌ Unknown dataset.");
+            return;
+        }
+        System.out.print("File (.csv, .ndjson or .jsonl, add .gz to compress): ");
+        String file = sc.nextLine().trim();
+        if (file.isEmpty()) {
+            System.out.println("❌ File name is required.");
+            return;
+        }
+
+        String from = null;
+        String to = null;
+        if (dataset.hasDateFilter()) {
+            System.out.print("From date (YYYY-MM-DD, blank for no limit): ");
+            from = sc.nextLine().trim();
+            System.out.print("To date (YYYY-MM-DD, blank for no limit): ");
+            to = sc.nextLine().trim();
+            if (!isOptionalDate(from) || !isOptionalDate(to)) {
+                System.out.println("❌ Invalid date. Use YYYY-MM-DD.");
+                return;
+            }
+        }
+        String status = null;
+        if (dataset.hasStatusFilter()) {
+            System.out.print("Status (blank for all): ");
+            status = sc.nextLine().trim();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long rows = new DataExporter(con).export(dataset, Paths.get(file), from, to, status);
+            System.out.println("✅ Exported " + rows + " rows to " + file
+                    + " in " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (SQLException | IOException | InvalidPathException e) {
+            System.out.println("❌ Export failed: " + e.getMessage());
+        }
+    }
+
+    // Load treks, schedules or users from a CSV file (see BulkImporter for the columns)
+    private void handleImport() {
+        System.out.println("\n--- Import Data ---");
+        System.out.print("Import (treks/schedules/users): ");
+        BulkImporter.Target target = BulkImporter.Target.parse(sc.nextLine());
+        if (target == null) {
+            System.out.println("❌ Unknown import type.");
+            return;
+        }
+        System.out.print("CSV file: ");
+        String file = sc.nextLine().trim();
+        if (file.isEmpty()) {
+            System.out.println("❌ File name is required.");
+            return;
+        }
+        try {
+            new BulkImporter(con).importFile(target, Paths.get(file));
+        } catch (SQLException | IOException | InvalidPathException e) {
+            System.out.println("❌ Import failed: " + e.getMessage());
+        }
+    }
+
+    private static boolean isOptionalDate(String date) {
+        return date.isEmpty() || (DATE_PATTERN.matcher(date).matches() && isCalendarDate(date));
+    }
+
 
     // --- MAIN EXECUTION METHOD ---
 
@@ -398,7 +539,7 @@ public class AdminDashboard {
         int adminOpt;
         do {
             System.out.println("\n===== 👑 ADMIN DASHBOARD 👑 =====");
-            System.out.println("1. Approve Account \n2. Manage Treks \n3. View All Bookings \n4. Approve Booking (Assign Guide to Schedule) \n5. Schedule New Trek \n6. Log Out");
+            System.out.println("1. Approve Account \n2. Manage Treks \n3. View All Bookings \n4. Approve Booking (Assign Guide to Schedule) \n5. Schedule New Trek \n6. Export Data \n7. Import Data \n8. Log Out");
             System.out.print("Enter choice: ");
 
             // Input Validation for Menu Choice
@@ -428,12 +569,18 @@ public class AdminDashboard {
                 case 5: // Case for scheduling
                     handleScheduleTrek();
                     break;
-                case 6: // Log Out updated to case 6
+                case 6:
+                    handleExport();
+                    break;
+                case 7:
+                    handleImport();
+                    break;
+                case 8:
                     System.out.println("Logging out from Admin Dashboard...");
                     break;
                 default:
                     System.out.println("Invalid admin option.");
             }
-        } while (adminOpt != 6); // Loop condition updated to 6
+        } while (adminOpt != 8);
     }
 }
\ No newline at end of file
@@ -0,0 +1,563 @@
+package Main;
+
+import CONFIG.AsyncExecutor;
+import CONFIG.DbConfig;
+import CONFIG.Json;
+import CONFIG.KeysetPager;
+import CONFIG.Row;
+import CONFIG.dbConnect;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/JSON front-end for the same operations as the console dashboards, so
+ * many users can share one process (start with: main --http [port]).
+ *
+ * Every request runs on its own virtual thread where the JVM has them (see
+ * AsyncExecutor.newTaskExecutor), otherwise on a fixed pool. The SQL and the
+ * booking logic are the dashboards' own (their package-private constants,
+ * ReservationEngine, AdminDashboard.approveBooking), so both front-ends
+ * behave the same.
+ *
+ *   POST /api/login                          {"email","password"} -> {"token","userId","type"}
+ *   POST /api/logout
+ *   GET  /api/treks
+ *   GET  /api/schedules                      upcoming schedules with seats left
+ *   GET  /api/bookings?after=ID              Customer: own bookings, one page
+ *   POST /api/bookings                       Customer: {"scheduleId", "guests":["name", ...]}
+ *   POST /api/bookings/{id}/cancel           Customer
+ *   GET  /api/guide/bookings?after=ID        Guide: active assigned bookings
+ *   GET  /api/guide/bookings/{id}/manifest   Guide
+ *   GET  /api/admin/users?after=ID           Admin
+ *   POST /api/admin/users/{id}/approve       Admin
+ *   POST /api/admin/bookings/{id}/approve    Admin: {"guideId"} optional
+ *
+ * Everything except login, treks and schedules needs "Authorization: Bearer <token>".
+ * Errors come back as {"error": "..."} with a 4xx/5xx status.
+ *
+ * Settings: baklay.http.port=N (default 8080), baklay.http.threads=N (pool size without
+ * virtual threads, default 64), baklay.http.sessionTtlMs=N (idle logout, default 8 hours).
+ * Expired sessions are swept once a minute, so clients that never log out don't pile up.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = DbConfig.getInt("baklay.http.port", 8080);
+    private static final int FALLBACK_THREADS = DbConfig.getInt("baklay.http.threads", 64);
+    private static final long SESSION_TTL_MS = DbConfig.getLong("baklay.http.sessionTtlMs", 8 * 60 * 60 * 1000L);
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final long SWEEP_INTERVAL_MS = Math.max(1, Math.min(SESSION_TTL_MS, 60_000L));
+
+    /** Logged-in user behind a token. */
+    private static final class Session {
+        final int userId;
+        final String type;
+        volatile long lastSeen = System.currentTimeMillis();
+
+        Session(int userId, String type) {
+            this.userId = userId;
+            this.type = type;
+        }
+    }
+
+    /** Ends a request with this status and {"error": message}. */
+    private static final class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final dbConnect con;
+    private final ReservationEngine reservations;
+    private final HttpServer server;
+    private final ExecutorService threads;
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    public ApiServer(dbConnect con, int port) throws IOException {
+        this.con = con;
+        this.reservations = new ReservationEngine(con);
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.threads = AsyncExecutor.newTaskExecutor(FALLBACK_THREADS, "http");
+        server.createContext("/api/", this::handle);
+        server.setExecutor(threads);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "http-session-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        server.start();
+        sweeper.scheduleWithFixedDelay(this::sweepSessions, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        System.out.println("🌐 HTTP API listening on port " + getPort()
+                + (AsyncExecutor.hasVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(1);
+        threads.shutdown();
+        sweeper.shutdownNow();
+    }
+
+    //-----------------------------------------------
+    // DISPATCH
+    //-----------------------------------------------
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String method = ex.getRequestMethod();
+            String[] path = ex.getRequestURI().getPath().substring("/api/".length()).split("/");
+            Object result = route(ex, method, path);
+            send(ex, 200, result);
+        } catch (ApiException e) {
+            send(ex, e.status, error(e.getMessage()));
+        } catch (SQLException e) {
+            System.out.println("HTTP " + ex.getRequestURI() + " failed: " + e.getMessage());
+            send(ex, 500, error("Database error: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            System.out.println("HTTP " + ex.getRequestURI() + " failed: " + e);
+            send(ex, 500, error("Internal error"));
+        } finally {
+            ex.close();
+        }
+    }
+
+    private Object route(HttpExchange ex, String method, String[] p) throws ApiException, SQLException, IOException {
+        boolean get = "GET".equals(method);
+        boolean post = "POST".equals(method);
+        String first = p[0];
+
+        if (p.length == 1 && post && first.equals("login")) {
+            return login(readBody(ex));
+        }
+        if (p.length == 1 && post && first.equals("logout")) {
+            sessions.remove(token(ex));
+            return message("Logged out.");
+        }
+        if (p.length == 1 && get && first.equals("treks")) {
+            return treks();
+        }
+        if (p.length == 1 && get && first.equals("schedules")) {
+            return schedules();
+        }
+        if (first.equals("bookings")) {
+            Session s = require(ex, "Customer");
+            if (p.length == 1 && get) {
+                return page(new KeysetPager(CustomerDashboard.MY_BOOKINGS_SQL, CustomerDashboard.MY_BOOKINGS_FILTER,
+                        "b.b_id", "b_id", s.userId), "b_id", ex);
+            }
+            if (p.length == 1 && post) {
+                return book(s, readBody(ex));
+            }
+            if (p.length == 3 && post && p[2].equals("cancel")) {
+                return cancel(s, id(p[1]));
+            }
+        }
+        if (first.equals("guide") && p.length >= 2 && p[1].equals("bookings")) {
+            Session s = require(ex, "Guide");
+            if (p.length == 2 && get) {
+                return page(new KeysetPager(GuideDashboard.ASSIGNED_SQL, GuideDashboard.ASSIGNED_FILTER,
+                        "b.b_id", "b_id", s.userId), "b_id", ex);
+            }
+            if (p.length == 4 && get && p[3].equals("manifest")) {
+                return manifest(s, id(p[2]));
+            }
+        }
+        if (first.equals("admin") && p.length >= 2) {
+            require(ex, "Admin");
+            if (p.length == 2 && get && p[1].equals("users")) {
+                return page(new KeysetPager(AdminDashboard.USERS_SQL, null, "u_id", "u_id"), "u_id", ex);
+            }
+            if (p.length == 4 && post && p[1].equals("users") && p[3].equals("approve")) {
+                return approveUser(id(p[2]));
+            }
+            if (p.length == 4 && post && p[1].equals("bookings") && p[3].equals("approve")) {
+                return approveBooking(id(p[2]), readBody(ex));
+            }
+        }
+        throw new ApiException(404, "No such endpoint: " + method + " " + ex.getRequestURI().getPath());
+    }
+
+    //-----------------------------------------------
+    // LOGIN
+    //-----------------------------------------------
+
+    private Object login(Map<String, Object> body) throws ApiException, SQLException {
+        String email = text(body, "email");
+        String password = text(body, "password");
+        List<Row> result = query(main.LOGIN_SQL, email);
+        if (result.isEmpty()) {
+            throw new ApiException(401, "Invalid credentials.");
+        }
+        Row user = result.get(0);
+        String hashed = dbConnect.hashPassword(password);
+        if (hashed == null || !hashed.equals(user.getString("u_pass"))) {
+            throw new ApiException(401, "Invalid credentials.");
+        }
+        if ("Pending".equals(user.getString("u_status"))) {
+            throw new ApiException(403, "Account is Pending, contact the Admin.");
+        }
+
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        Session session = new Session(user.getInt("u_id"), user.getString("u_type"));
+        sessions.put(token.toString(), session);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("token", token.toString());
+        out.put("userId", session.userId);
+        out.put("type", session.type);
+        return out;
+    }
+
+    // Drops sessions idle longer than the TTL; require() checks expiry itself, this only frees memory
+    private void sweepSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(s -> now - s.lastSeen > SESSION_TTL_MS);
+    }
+
+    private static String token(HttpExchange ex) {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        return (auth != null && auth.startsWith("Bearer ")) ? auth.substring("Bearer ".length()).trim() : "";
+    }
+
+    // The caller's session, which must belong to a user of this type
+    private Session require(HttpExchange ex, String type) throws ApiException {
+        String token = token(ex);
+        Session s = sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (s != null && now - s.lastSeen > SESSION_TTL_MS) {
+            sessions.remove(token);
+            s = null;
+        }
+        if (s == null) {
+            throw new ApiException(401, "Log in first (Authorization: Bearer <token>).");
+        }
+        if (!type.equals(s.type)) {
+            throw new ApiException(403, "Only for " + type + " accounts.");
+        }
+        s.lastSeen = now;
+        return s;
+    }
+
+    //-----------------------------------------------
+    // BROWSING (served from the in-memory catalog and index)
+    //-----------------------------------------------
+
+    private Object treks() {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (TrekCatalog.Trek trek : TrekCatalog.shared(con).all()) {
+            out.add(trekJson(trek));
+        }
+        return out;
+    }
+
+    private static Map<String, Object> trekJson(TrekCatalog.Trek trek) {
+        Map<String, Object> t = new LinkedHashMap<>();
+        t.put("id", trek.getId());
+        t.put("code", trek.getCode());
+        t.put("description", trek.getDescription());
+        t.put("difficulty", trek.getDifficulty());
+        t.put("price", trek.getPrice());
+        return t;
+    }
+
+    private Object schedules() {
+        TrekCatalog catalog = TrekCatalog.shared(con);
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (AvailabilityIndex.Availability slot : AvailabilityIndex.shared(con).available()) {
+            AvailabilityIndex.Schedule schedule = slot.getSchedule();
+            TrekCatalog.Trek trek = catalog.find(schedule.getTrekId());
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("scheduleId", schedule.getId());
+            s.put("date", schedule.getDate());
+            s.put("seatsLeft", slot.getSeatsLeft());
+            s.put("guide", schedule.getGuideName());
+            s.put("trek", trek == null ? null : trekJson(trek));
+            out.add(s);
+        }
+        return out;
+    }
+
+    // One keyset page: {"rows": [...], "next": key to pass as ?after= (null on the last page)}
+    private Object page(KeysetPager pager, String keyColumn, HttpExchange ex) throws ApiException, SQLException {
+        String after = queryParam(ex, "after");
+        if (after != null) {
+            pager.startAfter(id(after));
+        }
+        List<Row> rows = query(pager.pageSql(), pager.pageParams());
+        boolean more = rows.size() > pager.getPageSize();
+        if (more) {
+            rows = rows.subList(0, pager.getPageSize());
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("rows", rows);
+        out.put("next", more ? rows.get(rows.size() - 1).get(keyColumn) : null);
+        return out;
+    }
+
+    //-----------------------------------------------
+    // CUSTOMER
+    //-----------------------------------------------
+
+    private Object book(Session s, Map<String, Object> body) throws ApiException, SQLException {
+        int scheduleId = number(body, "scheduleId");
+        Object guestsValue = body.get("guests");
+        if (!(guestsValue instanceof List) || ((List<?>) guestsValue).isEmpty()) {
+            throw new ApiException(400, "guests must list the name of every person, including yourself.");
+        }
+        List<?> guestList = (List<?>) guestsValue;
+        String[] guestNames = new String[guestList.size()];
+        for (int i = 0; i < guestNames.length; i++) {
+            Object name = guestList.get(i);
+            if (!(name instanceof String) || ((String) name).trim().isEmpty()) {
+                throw new ApiException(400, "Guest name " + (i + 1) + " is empty.");
+            }
+            guestNames[i] = ((String) name).trim();
+        }
+
+        // Same checks as CustomerDashboard.handleBookTrek
+        AvailabilityIndex.Availability details = AvailabilityIndex.shared(con).find(scheduleId);
+        TrekCatalog.Trek trek = (details == null) ? null : TrekCatalog.shared(con).find(details.getSchedule().getTrekId());
+        if (trek == null) {
+            throw new ApiException(404, "Schedule ID " + scheduleId + " not found or is no longer available.");
+        }
+        if (guestNames.length > details.getSeatsLeft()) {
+            throw new ApiException(409, "Not enough slots available! Maximum allowed is " + details.getSeatsLeft() + ".");
+        }
+
+        double totalPrice = trek.getPrice() * guestNames.length;
+        ReservationEngine.Booking booking = reservations.book(s.userId, scheduleId, guestNames, totalPrice);
+        if (!booking.isBooked()) {
+            throw new ApiException(409, "Someone else just booked those slots. Only " + booking.getSeatsLeft()
+                    + " slot(s) left on Schedule ID " + scheduleId + ".");
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("bookingId", booking.getBookingId());
+        out.put("status", "Pending");
+        out.put("guests", guestNames.length);
+        out.put("totalPrice", totalPrice);
+        out.put("seatsLeft", booking.getSeatsLeft());
+        return out;
+    }
+
+    private Object cancel(Session s, int bookingId) throws ApiException, SQLException {
+        ReservationEngine.Cancellation cancellation = reservations.cancel(s.userId, bookingId);
+        switch (cancellation.getResult()) {
+            case NOT_FOUND:
+                throw new ApiException(404, "Booking ID " + bookingId + " not found or does not belong to your account.");
+            case NOT_CANCELLABLE:
+                throw new ApiException(409, "Cannot cancel Booking ID " + bookingId + ". Current status is: "
+                        + cancellation.getPreviousStatus() + ".");
+            default:
+                Map<String, Object> out = new LinkedHashMap<>();
+                out.put("bookingId", bookingId);
+                out.put("status", "Cancelled");
+                out.put("scheduleId", cancellation.getScheduleId());
+                out.put("seatsReleased", cancellation.getSeatsReleased());
+                return out;
+        }
+    }
+
+    //-----------------------------------------------
+    // GUIDE
+    //-----------------------------------------------
+
+    private Object manifest(Session s, int bookingId) throws ApiException, SQLException {
+        List<Row> members = query(GuideDashboard.MANIFEST_SQL, bookingId, s.userId);
+        if (members.isEmpty()) {
+            throw new ApiException(404, "Booking ID " + bookingId
+                    + " not found, is not assigned to you, or is not yet Approved/Confirmed.");
+        }
+        Row lead = members.get(0);
+        List<String> guests = new ArrayList<>();
+        for (Row guest : query(GuideDashboard.GUESTS_SQL, bookingId)) {
+            guests.add(guest.getString("guest_name"));
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("bookingId", bookingId);
+        out.put("trek", lead.getString("trek_name"));
+        out.put("leadName", lead.getString("u_name"));
+        out.put("leadContact", lead.getString("u_contact"));
+        out.put("guestCount", lead.getInt("b_guests"));
+        out.put("guests", guests);
+        return out;
+    }
+
+    //-----------------------------------------------
+    // ADMIN
+    //-----------------------------------------------
+
+    private Object approveUser(int userId) throws ApiException, SQLException {
+        if (dbConnect.await(con.updateAsync(AdminDashboard.APPROVE_USER_SQL, "Approved", userId)) == 0) {
+            throw new ApiException(404, "User ID " + userId + " not found.");
+        }
+        return message("User ID " + userId + " has been Approved.");
+    }
+
+    private Object approveBooking(int bookingId, Map<String, Object> body) throws ApiException, SQLException {
+        List<Row> booking = query(AdminDashboard.CHECK_BOOKING_SQL, bookingId);
+        if (booking.isEmpty()) {
+            throw new ApiException(404, "Booking ID " + bookingId + " not found.");
+        }
+        int scheduleId = booking.get(0).getInt("s_id");
+        int guideId = body.containsKey("guideId") ? number(body, "guideId") : 0;
+        if (guideId > 0) {
+            boolean approvedGuide = false;
+            for (Row guide : query(AdminDashboard.AVAILABLE_GUIDES_SQL)) {
+                approvedGuide |= guide.getInt("u_id") == guideId;
+            }
+            if (!approvedGuide) {
+                throw new ApiException(400, "User ID " + guideId + " is not an approved guide.");
+            }
+        }
+        AdminDashboard.approveBooking(con, bookingId, scheduleId, guideId);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("bookingId", bookingId);
+        out.put("status", "Approved");
+        out.put("scheduleId", scheduleId);
+        out.put("guideId", guideId > 0 ? guideId : null);
+        return out;
+    }
+
+    //-----------------------------------------------
+    // HELPERS
+    //-----------------------------------------------
+
+    // Runs on the request's own thread (which may block); errors are thrown, not printed
+    private List<Row> query(String sql, Object... params) throws SQLException {
+        return con.queryRecords(sql, params);
+    }
+
+    private static Map<String, Object> readBody(HttpExchange ex) throws ApiException, IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk)) != -1) {
+                buffer.write(chunk, 0, n);
+                if (buffer.size() > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body too large.");
+                }
+            }
+        }
+        String text = new String(buffer.toByteArray(), StandardCharsets.UTF_8).trim();
+        if (text.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Object parsed;
+        try {
+            parsed = Json.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed JSON: " + e.getMessage());
+        }
+        if (!(parsed instanceof Map)) {
+            throw new ApiException(400, "Request body must be a JSON object.");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) parsed;
+        return body;
+    }
+
+    private static String text(Map<String, Object> body, String field) throws ApiException {
+        Object value = body.get(field);
+        if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+            throw new ApiException(400, field + " is required.");
+        }
+        return ((String) value).trim();
+    }
+
+    private static int number(Map<String, Object> body, String field) throws ApiException {
+        Object value = body.get(field);
+        if (!(value instanceof Long)) {
+            throw new ApiException(400, field + " must be a whole number.");
+        }
+        long n = (Long) value;
+        if (n < Integer.MIN_VALUE || n > Integer.MAX_VALUE) {
+            throw new ApiException(400, field + " is out of range.");
+        }
+        return (int) n;
+    }
+
+    private static int id(String text) throws ApiException {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid ID format: " + text);
+        }
+    }
+
+    private static String queryParam(HttpExchange ex, String name) {
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = (eq < 0) ? pair : pair.substring(0, eq);
+            if (key.equals(name)) {
+                try {
+                    return (eq < 0) ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+                } catch (java.io.UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e); // UTF-8 is always supported
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> message(String text) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("message", text);
+        return out;
+    }
+
+    private static Map<String, Object> error(String text) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("error", text);
+        return out;
+    }
+
+    private static void send(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package Main;
+
+import CONFIG.DataVersionMonitor;
+import CONFIG.IntIntHashMap;
+import CONFIG.Row;
+import CONFIG.dbConnect;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory list of upcoming schedules (with a guide) and the seats left on
+ * each, so customers can browse and pick a trek without querying SQLite.
+ *
+ * Seats left are kept in an IntIntHashMap keyed by s_id (no boxing); the
+ * schedules themselves are kept sorted by date, with a second IntIntHashMap
+ * from s_id to position in that list.
+ *
+ * The index is loaded once per process and then kept up to date by the code
+ * that changes schedules: bookings and cancellations report the seats left
+ * (setSeatsLeft), schedule creation and guide assignment reload that one
+ * schedule (refreshSchedule). Writes from other terminals are picked up by
+ * the DataVersionMonitor, which reloads the index. Seat reports carry a stamp
+ * taken inside their write transaction, so a report from an older commit that
+ * arrives late can't overwrite a newer one. A reload reads outside the
+ * lock, so seats and schedules reported while it runs are re-applied on top of
+ * the new snapshot; a reload or refresh that fails keeps what the index had.
+ *
+ * The database stays the authority: a booking still reserves its seats with
+ * ReservationEngine, which can't oversell even if the index is behind.
+ */
+public final class AvailabilityIndex {
+
+    /** One schedule as shown to customers. Immutable; seats left are kept separately. */
+    public static final class Schedule {
+        private final int id;
+        private final int trekId;
+        private final String date;
+        private final String guideName;
+
+        Schedule(int id, int trekId, String date, String guideName) {
+            this.id = id;
+            this.trekId = trekId;
+            this.date = date;
+            this.guideName = guideName;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getTrekId() {
+            return trekId;
+        }
+
+        // ISO date, YYYY-MM-DD
+        public String getDate() {
+            return date;
+        }
+
+        public String getGuideName() {
+            return guideName;
+        }
+    }
+
+    /** A schedule together with its seats left at the moment it was read. */
+    public static final class Availability {
+        private final Schedule schedule;
+        private final int seatsLeft;
+
+        Availability(Schedule schedule, int seatsLeft) {
+            this.schedule = schedule;
+            this.seatsLeft = seatsLeft;
+        }
+
+        public Schedule getSchedule() {
+            return schedule;
+        }
+
+        public int getSeatsLeft() {
+            return seatsLeft;
+        }
+    }
+
+    // Same rows the customer schedule list used to join for, minus the trek details (see TrekCatalog)
+    private static final String SELECT_SQL =
+            "SELECT s.s_id, s.t_id, s.schedule_date, s.capacity, u.u_name AS guide_name " +
+            "FROM table_schedules s " +
+            "JOIN table_user u ON s.guide_id = u.u_id ";
+    private static final String LOAD_SQL = SELECT_SQL + "WHERE s.schedule_date >= ? ORDER BY s.schedule_date, s.s_id";
+    private static final String ONE_SQL = SELECT_SQL + "WHERE s.s_id = ?";
+
+    private static final int NOT_INDEXED = -1;
+
+    // Date first, s_id breaks ties (same order as the old ORDER BY)
+    private static final Comparator<Schedule> BY_DATE =
+            Comparator.comparing(Schedule::getDate).thenComparingInt(Schedule::getId);
+
+    private static volatile AvailabilityIndex shared;
+
+    private final dbConnect con;
+    private final IntIntHashMap seatsLeft = new IntIntHashMap(64, NOT_INDEXED);
+    private final IntIntHashMap position = new IntIntHashMap(64, NOT_INDEXED);
+    private final List<Schedule> byDate = new ArrayList<>();
+
+    // Stamps for setSeatsLeft, and the newest one applied per s_id
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final IntIntHashMap appliedStamp = new IntIntHashMap(64, NOT_INDEXED);
+
+    // One reload at a time. While it reads, updates are also noted here (null otherwise) so they
+    // aren't lost when its older snapshot is swapped in.
+    private final Object reloadLock = new Object();
+    private IntIntHashMap seatsDuringReload;
+    private List<Integer> refreshedDuringReload;
+
+    private AvailabilityIndex(dbConnect con) {
+        this.con = con;
+    }
+
+    // The process-wide index, loaded on first use
+    public static AvailabilityIndex shared(dbConnect con) {
+        AvailabilityIndex index = shared;
+        if (index == null) {
+            synchronized (AvailabilityIndex.class) {
+                index = shared;
+                if (index == null) {
+                    index = new AvailabilityIndex(con);
+                    index.reload();
+                    watch(index);
+                    shared = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // Bookings, cancellations, new schedules and guide renames from other terminals trigger a full reload
+    private static void watch(AvailabilityIndex index) {
+        DataVersionMonitor monitor = dbConnect.getChangeMonitor();
+        if (monitor != null) {
+            monitor.onChange("table_schedules", index::reload);
+            monitor.onChange("table_user", index::reload);
+        }
+    }
+
+    //-----------------------------------------------
+    // READS (no database access)
+    //-----------------------------------------------
+
+    // Upcoming schedules with at least one seat left, by date
+    public synchronized List<Availability> available() {
+        String today = LocalDate.now().toString();
+        List<Availability> out = new ArrayList<>();
+        for (Schedule schedule : byDate) {
+            int left = seatsLeft.get(schedule.getId());
+            if (left > 0 && schedule.getDate().compareTo(today) >= 0) {
+                out.add(new Availability(schedule, left));
+            }
+        }
+        return out;
+    }
+
+    // null if the schedule is not upcoming, has no guide, or is full
+    public synchronized Availability find(int scheduleId) {
+        int at = position.get(scheduleId);
+        if (at == NOT_INDEXED) {
+            return null;
+        }
+        Schedule schedule = byDate.get(at);
+        int left = seatsLeft.get(scheduleId);
+        if (left <= 0 || schedule.getDate().compareTo(LocalDate.now().toString()) < 0) {
+            return null;
+        }
+        return new Availability(schedule, left);
+    }
+
+    //-----------------------------------------------
+    // UPDATES
+    //-----------------------------------------------
+
+    // Full reload from table_schedules; on a failed query the current index stays
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                seatsDuringReload = new IntIntHashMap(16, NOT_INDEXED);
+                refreshedDuringReload = new ArrayList<>();
+            }
+            List<Row> rows;
+            try {
+                rows = con.queryRecords(LOAD_SQL, LocalDate.now().toString());
+            } catch (SQLException e) {
+                synchronized (this) {
+                    seatsDuringReload = null;
+                    refreshedDuringReload = null;
+                }
+                System.out.println("⚠️ Could not reload schedule availability, keeping the previous index: " + e.getMessage());
+                return;
+            }
+
+            List<Integer> refreshAgain;
+            synchronized (this) {
+                IntIntHashMap noted = seatsDuringReload;
+                refreshAgain = refreshedDuringReload;
+                seatsDuringReload = null;
+                refreshedDuringReload = null;
+
+                byDate.clear();
+                seatsLeft.clear();
+                position.clear();
+                for (Row row : rows) {
+                    Schedule schedule = toSchedule(row);
+                    position.put(schedule.getId(), byDate.size());
+                    byDate.add(schedule);
+                    seatsLeft.put(schedule.getId(), row.getInt("capacity"));
+                }
+                // Bookings and cancellations that committed while we read may be missing from the rows
+                for (int scheduleId : noted.keys()) {
+                    applySeatsLeft(scheduleId, noted.get(scheduleId));
+                }
+            }
+            for (int scheduleId : refreshAgain) {
+                refreshSchedule(scheduleId);
+            }
+        }
+    }
+
+    // Take this inside the write transaction whose seats you will report: the pooled writer runs one
+    // transaction at a time, so stamps follow commit order
+    public int stamp() {
+        return sequence.incrementAndGet();
+    }
+
+    // After a booking or cancellation committed: the seats left as the database reported them, with the
+    // stamp from its transaction. Threads can finish out of order; a report older than one already
+    // applied to this schedule is dropped.
+    public synchronized void setSeatsLeft(int scheduleId, int left, int stamp) {
+        if (stamp < appliedStamp.get(scheduleId)) {
+            return;
+        }
+        appliedStamp.put(scheduleId, stamp);
+        if (seatsDuringReload != null) {
+            seatsDuringReload.put(scheduleId, left);
+        }
+        applySeatsLeft(scheduleId, left);
+    }
+
+    private void applySeatsLeft(int scheduleId, int left) {
+        if (seatsLeft.containsKey(scheduleId)) {
+            seatsLeft.put(scheduleId, left);
+        }
+    }
+
+    // After a schedule was created or changed (date, guide): re-reads that one schedule.
+    // On a failed query the schedule is left as it was.
+    public void refreshSchedule(int scheduleId) {
+        List<Row> rows;
+        try {
+            rows = con.queryRecords(ONE_SQL, scheduleId);
+        } catch (SQLException e) {
+            System.out.println("⚠️ Could not refresh schedule " + scheduleId + " in the availability index: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            if (refreshedDuringReload != null) {
+                refreshedDuringReload.add(scheduleId);
+            }
+            removeSchedule(scheduleId);
+            if (rows.isEmpty()) {
+                return; // deleted, or no guide yet
+            }
+            Schedule schedule = toSchedule(rows.get(0));
+            if (schedule.getDate().compareTo(LocalDate.now().toString()) < 0) {
+                return; // already in the past
+            }
+            int at = Collections.binarySearch(byDate, schedule, BY_DATE);
+            at = (at < 0) ? -(at + 1) : at;
+            byDate.add(at, schedule);
+            renumberFrom(at);
+            seatsLeft.put(scheduleId, rows.get(0).getInt("capacity"));
+        }
+    }
+
+    private void removeSchedule(int scheduleId) {
+        int at = position.remove(scheduleId);
+        if (at == NOT_INDEXED) {
+            return;
+        }
+        byDate.remove(at);
+        seatsLeft.remove(scheduleId);
+        renumberFrom(at);
+    }
+
+    // Positions after an insert/remove shifted by one
+    private void renumberFrom(int start) {
+        for (int i = start; i < byDate.size(); i++) {
+            position.put(byDate.get(i).getId(), i);
+        }
+    }
+
+    private static Schedule toSchedule(Row row) {
+        return new Schedule(row.getInt("s_id"), row.getInt("t_id"), row.getString("schedule_date"),
+                row.getString("guide_name"));
+    }
+}
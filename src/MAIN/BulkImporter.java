@@ -0,0 +1,355 @@
+package Main;
+
+import CONFIG.CsvReader;
+import CONFIG.DbConfig;
+import CONFIG.Transaction;
+import CONFIG.dbConnect;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Loads treks, schedules or users from a CSV file (start with:
+ * main --import <treks|schedules|users> <file.csv>, or from the admin menu).
+ *
+ * The first line names the columns, in any order; other columns (e.g. the IDs
+ * in a file from DataExporter) are ignored:
+ *
+ *   treks:     t_code, t_desc, t_difficulty, t_price
+ *   schedules: t_id, schedule_date, capacity [, guide_id]
+ *   users:     u_name, u_email, u_contact, u_type, u_pass [, u_status]
+ *
+ * Every row gets the checks the dashboards make when the same data is typed
+ * in (DATE_PATTERN and a real calendar day, capacity 1-15, main's
+ * EMAIL_PATTERN, unique email, digits-only contact, password length); u_pass
+ * is the plain password and is hashed on the way in. Rows that fail are
+ * reported with their line number and skipped.
+ *
+ * Valid rows are inserted in batches of baklay.import.batchSize (default 1000),
+ * one transaction per batch, so a large file costs one commit per batch instead
+ * of one per row, and only one batch is ever held in memory. If a batch fails
+ * the import stops there; earlier batches stay committed.
+ */
+public class BulkImporter {
+
+    private static final int BATCH_SIZE = Math.max(1, DbConfig.getInt("baklay.import.batchSize", 1000));
+    private static final int MAX_REJECTS_SHOWN = 50;
+
+    static final String INSERT_TREK_SQL = "INSERT INTO tables_treks (t_code, t_desc, t_difficulty, t_price) VALUES (?, ?, ?, ?)";
+    static final String INSERT_SCHEDULE_SQL = "INSERT INTO table_schedules (t_id, schedule_date, capacity, guide_id) VALUES (?, ?, ?, ?)";
+    static final String INSERT_USER_SQL = "INSERT INTO table_user (u_name, u_contact, u_email, u_type, u_status, u_pass) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum Target {
+        TREKS(INSERT_TREK_SQL, new String[]{"t_code", "t_desc", "t_difficulty", "t_price"}, new String[0]),
+        SCHEDULES(INSERT_SCHEDULE_SQL, new String[]{"t_id", "schedule_date", "capacity"}, new String[]{"guide_id"}),
+        USERS(INSERT_USER_SQL, new String[]{"u_name", "u_email", "u_contact", "u_type", "u_pass"}, new String[]{"u_status"});
+
+        private final String sql;
+        private final String[] required;
+        private final String[] optional;
+
+        Target(String sql, String[] required, String[] optional) {
+            this.sql = sql;
+            this.required = required;
+            this.optional = optional;
+        }
+
+        public static Target parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    // Counts for one import
+    public static final class Result {
+        private long read = 0;
+        private long imported = 0;
+        private long rejected = 0;
+        private long elapsedMs = 0;
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public long getRowsPerSecond() {
+            return read * 1000 / Math.max(1, elapsedMs);
+        }
+    }
+
+    // A row that fails validation; the message is shown with its line number
+    private static final class RejectedRow extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        RejectedRow(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final dbConnect con;
+
+    // Looked up once per import for the row checks
+    private final Set<Integer> trekIds = new HashSet<>();
+    private final Set<Integer> guideIds = new HashSet<>();
+    private final Set<String> emails = new HashSet<>();
+
+    public BulkImporter(dbConnect con) {
+        this.con = con;
+    }
+
+    /**
+     * Imports the file and prints each rejected row and a summary. Throws if the file can't
+     * be read or lacks a required column (nothing is written then), or if a batch fails.
+     */
+    public Result importFile(Target target, Path file) throws IOException, SQLException {
+        if (!Files.isReadable(file)) {
+            throw new IOException("Cannot read file: " + file);
+        }
+        Result result = new Result();
+        long start = System.currentTimeMillis();
+
+        try (CsvReader in = CsvReader.open(file)) {
+            String[] header = in.next();
+            if (header == null) {
+                throw new IOException("File is empty: " + file);
+            }
+            int[] columns = columnIndexes(target, header);
+            loadLookups(target);
+
+            List<Object[]> batch = new ArrayList<>(Math.min(BATCH_SIZE, 10_000));
+            String[] record;
+            while ((record = in.next()) != null) {
+                result.read++;
+                try {
+                    if (record.length != header.length) {
+                        throw new RejectedRow("expected " + header.length + " fields, found " + record.length);
+                    }
+                    batch.add(toValues(target, record, columns));
+                } catch (RejectedRow e) {
+                    result.rejected++;
+                    if (result.rejected <= MAX_REJECTS_SHOWN) {
+                        System.out.println("⚠️ Line " + in.getLine() + " rejected: " + e.getMessage());
+                    }
+                    continue;
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    result.imported += insert(target, batch, result);
+                }
+            }
+            result.imported += insert(target, batch, result);
+        } finally {
+            result.elapsedMs = System.currentTimeMillis() - start;
+            if (result.imported > 0) {
+                refreshCaches(target);
+            }
+        }
+
+        if (result.rejected > MAX_REJECTS_SHOWN) {
+            System.out.println("⚠️ ... and " + (result.rejected - MAX_REJECTS_SHOWN) + " more rejected rows.");
+        }
+        System.out.println("✅ Imported " + result.imported + " of " + result.read + " " + target.name().toLowerCase(Locale.ROOT)
+                + " rows (" + result.rejected + " rejected) in " + result.elapsedMs + " ms, "
+                + result.getRowsPerSecond() + " rows/s.");
+        return result;
+    }
+
+    //-----------------------------------------------
+    // COLUMNS AND LOOKUPS
+    //-----------------------------------------------
+
+    // Position of every required/optional column in the file (-1 = optional column absent)
+    private static int[] columnIndexes(Target target, String[] header) throws IOException {
+        int[] indexes = new int[target.required.length + target.optional.length];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < indexes.length; i++) {
+            boolean required = i < target.required.length;
+            String name = required ? target.required[i] : target.optional[i - target.required.length];
+            indexes[i] = -1;
+            for (int c = 0; c < header.length; c++) {
+                if (header[c].trim().equalsIgnoreCase(name)) {
+                    indexes[i] = c;
+                    break;
+                }
+            }
+            if (required && indexes[i] < 0) {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IOException("Missing column(s) " + missing + "; " + target.name().toLowerCase(Locale.ROOT)
+                    + " files need " + String.join(", ", target.required));
+        }
+        return indexes;
+    }
+
+    private void loadLookups(Target target) throws SQLException {
+        if (target == Target.SCHEDULES) {
+            con.forEachRecord("SELECT t_id FROM tables_treks", (rs, cols) -> trekIds.add(rs.getInt(1)));
+            con.forEachRecord(AdminDashboard.AVAILABLE_GUIDES_SQL, (rs, cols) -> guideIds.add(rs.getInt(1)));
+        } else if (target == Target.USERS) {
+            con.forEachRecord("SELECT u_email FROM table_user", (rs, cols) -> emails.add(rs.getString(1)));
+        }
+    }
+
+    //-----------------------------------------------
+    // ROW CHECKS (same rules as the dashboards)
+    //-----------------------------------------------
+
+    // Parameters for the target's INSERT, in its column order
+    private Object[] toValues(Target target, String[] record, int[] columns) throws RejectedRow {
+        switch (target) {
+            case TREKS: {
+                String code = text(record, columns[0], "t_code");
+                String desc = text(record, columns[1], "t_desc");
+                String diff = text(record, columns[2], "t_difficulty");
+                double price = number(record, columns[3], "t_price");
+                if (price <= 0) {
+                    throw new RejectedRow("price must be greater than zero");
+                }
+                return new Object[]{code, desc, diff, price};
+            }
+            case SCHEDULES: {
+                int trekId = integer(record, columns[0], "t_id");
+                if (!trekIds.contains(trekId)) {
+                    throw new RejectedRow("no trek with ID " + trekId);
+                }
+                String date = text(record, columns[1], "schedule_date");
+                if (!AdminDashboard.DATE_PATTERN.matcher(date).matches()) {
+                    throw new RejectedRow("invalid date '" + date + "', use YYYY-MM-DD");
+                }
+                if (!AdminDashboard.isCalendarDate(date)) {
+                    throw new RejectedRow("date " + date + " does not exist");
+                }
+                int capacity = integer(record, columns[2], "capacity");
+                if (capacity <= 0 || capacity > 15) {
+                    throw new RejectedRow("capacity must be between 1 and 15");
+                }
+                Integer guideId = null;
+                if (columns[3] >= 0 && !record[columns[3]].trim().isEmpty() && !record[columns[3]].trim().equals("0")) {
+                    guideId = integer(record, columns[3], "guide_id");
+                    if (!guideIds.contains(guideId)) {
+                        throw new RejectedRow("guide " + guideId + " is not an approved guide");
+                    }
+                }
+                return new Object[]{trekId, date, capacity, guideId};
+            }
+            default: { // USERS
+                String name = text(record, columns[0], "u_name");
+                String email = text(record, columns[1], "u_email");
+                if (!main.EMAIL_PATTERN.matcher(email).matches()) {
+                    throw new RejectedRow("invalid email '" + email + "'");
+                }
+                if (emails.contains(email)) {
+                    throw new RejectedRow("email " + email + " already exists");
+                }
+                String contact = text(record, columns[2], "u_contact");
+                if (!contact.matches("\\d+")) {
+                    throw new RejectedRow("contact number must contain only digits");
+                }
+                String type = userType(text(record, columns[3], "u_type"));
+                String pass = text(record, columns[4], "u_pass");
+                if (pass.length() < main.MIN_PASS_LENGTH) {
+                    throw new RejectedRow("password must be at least " + main.MIN_PASS_LENGTH + " characters long");
+                }
+                String status = "Pending";
+                if (columns[5] >= 0 && !record[columns[5]].trim().isEmpty()) {
+                    status = record[columns[5]].trim();
+                    if (!status.equals("Pending") && !status.equals("Approved")) {
+                        throw new RejectedRow("u_status must be Pending or Approved");
+                    }
+                }
+                String hash = dbConnect.hashPassword(pass);
+                if (hash == null) {
+                    throw new RejectedRow("password hashing failed");
+                }
+                emails.add(email); // a second row with the same email is a duplicate too
+                return new Object[]{name, contact, email, type, status, hash};
+            }
+        }
+    }
+
+    private static String text(String[] record, int column, String name) throws RejectedRow {
+        String value = record[column].trim();
+        if (value.isEmpty()) {
+            throw new RejectedRow(name + " cannot be empty");
+        }
+        return value;
+    }
+
+    private static double number(String[] record, int column, String name) throws RejectedRow {
+        String value = text(record, column, name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RejectedRow(name + " must be a number (got '" + value + "')");
+        }
+    }
+
+    // IDs and counts: a plain whole number, so 1.9 or 1e10 is rejected rather than truncated
+    private static int integer(String[] record, int column, String name) throws RejectedRow {
+        String value = text(record, column, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RejectedRow(name + " must be a whole number (got '" + value + "')");
+        }
+    }
+
+    private static String userType(String type) throws RejectedRow {
+        for (String known : new String[]{"Admin", "Guide", "Customer"}) {
+            if (known.equalsIgnoreCase(type)) {
+                return known;
+            }
+        }
+        throw new RejectedRow("u_type must be Admin, Guide or Customer");
+    }
+
+    //-----------------------------------------------
+    // WRITES
+    //-----------------------------------------------
+
+    // One transaction (one commit) for the whole batch; empties the batch
+    private int insert(Target target, List<Object[]> batch, Result result) throws SQLException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try (Transaction tx = con.beginTransaction()) {
+            tx.batchInsert(target.sql, batch);
+            tx.commit();
+        } catch (SQLException e) {
+            throw new SQLException(e.getMessage() + " (" + result.imported
+                    + " rows were committed before the failing batch)", e);
+        }
+        int count = batch.size();
+        batch.clear();
+        return count;
+    }
+
+    private void refreshCaches(Target target) {
+        if (target == Target.TREKS) {
+            TrekCatalog.shared(con).refresh();
+        } else if (target == Target.SCHEDULES) {
+            AvailabilityIndex.shared(con).reload();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package Main;
+
+import CONFIG.AsyncExecutor;
+import CONFIG.DbConfig;
+import CONFIG.SessionOutput;
+import CONFIG.dbConnect;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serves the console menu to many terminals from one JVM (start with:
+ * main --serve [port], connect with telnet/nc).
+ *
+ * Every connection gets its own Scanner and PrintStream and runs
+ * main.runSession() on its own virtual thread (a thread pool on JVMs without
+ * them). System.out is replaced by a SessionOutput, so the dashboards print
+ * to the right terminal unchanged. All sessions share this process's
+ * dbConnect pool, writer thread and caches.
+ *
+ * Output is buffered per session and sent whenever the session waits for
+ * input, so a prompt always shows before the read that needs it.
+ *
+ * Settings: baklay.console.port=N (default 2323), baklay.console.maxSessions=N
+ * (default 64; more connections are turned away), baklay.console.idleTimeoutMs=N
+ * (a session with no input this long is closed, default 30 minutes).
+ */
+public class ConsoleServer {
+
+    public static final int DEFAULT_PORT = DbConfig.getInt("baklay.console.port", 2323);
+    private static final int MAX_SESSIONS = DbConfig.getInt("baklay.console.maxSessions", 64);
+    private static final int IDLE_TIMEOUT_MS = DbConfig.getInt("baklay.console.idleTimeoutMs", 30 * 60 * 1000);
+
+    private final dbConnect con;
+    private final ServerSocket serverSocket;
+    private final ExecutorService threads;
+    private final Semaphore sessionSlots = new Semaphore(MAX_SESSIONS);
+    private final SessionOutput output;
+
+    public ConsoleServer(dbConnect con, int port) throws IOException {
+        this.con = con;
+        this.serverSocket = new ServerSocket(port);
+        this.threads = AsyncExecutor.newTaskExecutor(MAX_SESSIONS, "console-session");
+        this.output = SessionOutput.install();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Accepts connections until the socket is closed (stop())
+    public void run() throws IOException {
+        System.out.println("🖥️ Console server listening on port " + getPort()
+                + (AsyncExecutor.hasVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                if (!sessionSlots.tryAcquire()) {
+                    refuse(socket);
+                    continue;
+                }
+                threads.execute(() -> {
+                    try {
+                        serve(socket);
+                    } finally {
+                        sessionSlots.release();
+                    }
+                });
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                throw e;
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    public void stop() throws IOException {
+        serverSocket.close();
+    }
+
+    //-----------------------------------------------
+    // ONE SESSION
+    //-----------------------------------------------
+
+    private void serve(Socket socket) {
+        String client = String.valueOf(socket.getRemoteSocketAddress());
+        output.getConsole().println("Session opened: " + client);
+        try (Socket s = socket) {
+            s.setSoTimeout(IDLE_TIMEOUT_MS);
+            PrintStream out = new PrintStream(new BufferedOutputStream(s.getOutputStream(), 8192), false, "UTF-8");
+            Scanner sc = new Scanner(new FlushBeforeRead(s.getInputStream(), out), "UTF-8");
+            output.bind(out);
+            try {
+                main.runSession(sc, con);
+            } catch (NoSuchElementException | IllegalStateException e) {
+                // Terminal closed the connection (or went idle) in the middle of a prompt
+            } finally {
+                output.unbind();
+                out.flush();
+            }
+        } catch (IOException e) {
+            output.getConsole().println("Session " + client + " failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            output.getConsole().println("Session " + client + " crashed: " + e);
+        }
+        output.getConsole().println("Session closed: " + client);
+    }
+
+    private static void refuse(Socket socket) {
+        try (Socket s = socket) {
+            PrintStream out = new PrintStream(s.getOutputStream(), true, "UTF-8");
+            out.println("❌ Too many sessions, please try again later.");
+        } catch (IOException e) {
+            // client already gone
+        }
+    }
+
+    // Sends the session's pending output (e.g. "Enter choice: ") before blocking for its input
+    private static final class FlushBeforeRead extends FilterInputStream {
+        private final PrintStream out;
+
+        FlushBeforeRead(InputStream in, PrintStream out) {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException {
+            out.flush();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            out.flush();
+            return super.read(b, off, len);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package Main;
 
+import CONFIG.KeysetPager;
+import CONFIG.Row;
+import CONFIG.TableRenderer;
 import CONFIG.dbConnect;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
@@ -11,7 +14,20 @@ public class CustomerDashboard {
     private final Scanner sc;
     private final dbConnect con;
     private final int customerId;
+    private final ReservationEngine reservations;
     
+    // Customer's own bookings with their schedule and guide (also served by ApiServer)
+    static final String MY_BOOKINGS_SQL = "SELECT b.b_id, s.s_id, s.t_id, s.schedule_date, " +
+                    "b.b_guests, b.b_total_price, b.b_status, u.u_name AS assigned_guide " +
+                    "FROM table_bookings b " +
+                    "JOIN table_schedules s ON b.s_id = s.s_id " + 
+                    "LEFT JOIN table_user u ON s.guide_id = u.u_id";
+    static final String MY_BOOKINGS_FILTER = "b.u_id = ?";
+
+    // Column widths of the two tables on this screen
+    private static final TableRenderer.Layout SCHEDULES_LAYOUT = new TableRenderer.Layout(10, 8, 45, 12, 12, 10, 15, 25);
+    private static final TableRenderer.Layout MY_BOOKINGS_LAYOUT = new TableRenderer.Layout(13, 11, 45, 12, 10, 15, 10, 15);
+
     // Basic date pattern YYYY-MM-DD (not strictly used here, but kept from original code)
     private static final Pattern DATE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
 
@@ -20,106 +36,72 @@ public class CustomerDashboard {
         this.sc = sc;
         this.con = con;
         this.customerId = customerId;
+        this.reservations = new ReservationEngine(con);
     }
     
     // ------------------------------------
     // --- UTILITY METHODS ----------------
     // ------------------------------------
     
-    // Helper method to create separator lines 
-    private static String createSeparator(int width) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < width; i++) {
-            sb.append("-");
-        }
-        return sb.toString();
-    }
-    
-    // View Available Schedules
-    private List<Map<String, Object>> viewAvailableSchedules() {
-        // Fetches schedules that are in the future and have capacity > 0
-        String query = "SELECT s.s_id, t.t_code, t.t_desc, t.t_difficulty, s.schedule_date, " +
-                        "s.capacity AS available_slots, t.t_price, u.u_name AS guide_name " +
-                        "FROM table_schedules s " +
-                        "JOIN tables_treks t ON s.t_id = t.t_id " +
-                        "JOIN table_user u ON s.guide_id = u.u_id " +
-                        "WHERE s.capacity > 0 AND s.schedule_date >= DATE('now') " + 
-                        "ORDER BY s.schedule_date";
-        
-        List<Map<String, Object>> result = con.fetchRecords(query); 
+    // View Available Schedules - served from the in-memory AvailabilityIndex, no query
+    private List<AvailabilityIndex.Availability> viewAvailableSchedules() {
+        // Schedules that are in the future and have capacity > 0
+        List<AvailabilityIndex.Availability> result = AvailabilityIndex.shared(con).available();
         
         if (result.isEmpty()) {
             System.out.println("No available treks scheduled at this time.");
             return result;
         }
 
-        // Define fixed widths for alignment:
-        int totalWidth = 160;
-        String separator = createSeparator(totalWidth);
-        
-        // Format string for output rows
-        String format = "| %-10s | %-8s | %-40s | %-12s | %-12s | %-10s | %-15s | %-25s |%n";
-        
-        System.out.println("\n===== AVAILABLE TREK SCHEDULES =====");
-        System.out.println(separator);
-        // Print Headers
-        System.out.printf(format, 
-                          "Sched ID", "Code", "Description", "Difficulty", "Date", 
-                          "Slots", "Price (PHP)", "Guide");
-        System.out.println(separator);
+        // Whole table is built in memory and printed in one go
+        TableRenderer table = SCHEDULES_LAYOUT.newTable();
+        table.text("\n===== AVAILABLE TREK SCHEDULES =====");
+        table.header("Sched ID", "Code", "Description", "Difficulty", "Date", 
+                     "Slots", "Price (PHP)", "Guide");
         
         // Print Data
-        for (Map<String, Object> row : result) {
-            System.out.printf(format,
-                              row.get("s_id"), 
-                              row.get("t_code"), 
-                              row.get("t_desc"), 
-                              row.get("t_difficulty"), 
-                              row.get("schedule_date"), 
-                              row.get("available_slots"), 
-                              row.get("t_price"),
-                              row.get("guide_name"));
+        TrekCatalog catalog = TrekCatalog.shared(con);
+        for (AvailabilityIndex.Availability slot : result) {
+            AvailabilityIndex.Schedule schedule = slot.getSchedule();
+            TrekCatalog.Trek trek = catalog.find(schedule.getTrekId());
+            table.row(schedule.getId(), 
+                      trek == null ? "" : trek.getCode(), 
+                      trek == null ? "(removed)" : trek.getDescription(), 
+                      trek == null ? "" : trek.getDifficulty(), 
+                      schedule.getDate(), 
+                      slot.getSeatsLeft(), 
+                      trek == null ? "" : trek.getPriceText(),
+                      schedule.getGuideName());
         }
-        System.out.println(separator);
+        table.separator().print();
         return result;
     }
     
     // View Customer's Bookings - UPDATED to show guide and guests
-    private void viewMyBookings() {
-        String query = "SELECT b.b_id, s.s_id, t.t_desc AS trek_name, s.schedule_date, " +
-                        "b.b_guests, b.b_total_price, b.b_status, u.u_name AS assigned_guide " +
-                        "FROM table_bookings b " +
-                        "JOIN table_schedules s ON b.s_id = s.s_id " + 
-                        "JOIN tables_treks t ON s.t_id = t.t_id " + 
-                        "LEFT JOIN table_user u ON s.guide_id = u.u_id " + 
-                        "WHERE b.u_id = ?"; 
-        
-        List<Map<String, Object>> result = con.fetchRecords(query, customerId);
-        
+    private String viewMyBookings() {
+        // One page of bookings at a time, continuing after the last b_id shown
+        KeysetPager pager = new KeysetPager(MY_BOOKINGS_SQL, MY_BOOKINGS_FILTER, "b.b_id", "b_id", customerId);
+        return PagedView.browse(sc, pager, () -> printMyBookingsPage(pager.fetchPage(con)));
+    }
+
+    private void printMyBookingsPage(List<Row> result) {
         if (result.isEmpty()) {
             System.out.println("No bookings found.");
             return;
         }
         
-        int totalWidth = 145; 
-        String separator = createSeparator(totalWidth);
-        
-        String format = "| %-13s | %-10s | %-40s | %-12s | %-10s | %-15s | %-10s | %-15s |%n";
-        
-        System.out.println("\n===== MY BOOKINGS =====");
-        System.out.println(separator);
-        System.out.printf(format, 
-                          "Booking ID", "Schedule ID", "Trek", "Date", "Guests", 
-                          "Total Price", "Status", "Guide");
-        System.out.println(separator);
-        for (Map<String, Object> row : result) {
-            System.out.printf(format,
-                              row.get("b_id"), row.get("s_id"), row.get("trek_name"), 
-                              row.get("schedule_date"), row.get("b_guests"), 
-                              row.get("b_total_price"), row.get("b_status"), 
-                              row.get("assigned_guide"));
+        TableRenderer table = MY_BOOKINGS_LAYOUT.newTable();
+        table.text("\n===== MY BOOKINGS =====");
+        table.header("Booking ID", "Schedule ID", "Trek", "Date", "Guests", 
+                     "Total Price", "Status", "Guide");
+        TrekCatalog catalog = TrekCatalog.shared(con);
+        for (Row row : result) {
+            table.row(row.get("b_id"), row.get("s_id"), catalog.describe(row.getInt("t_id")), 
+                      row.get("schedule_date"), row.get("b_guests"), 
+                      row.get("b_total_price"), row.get("b_status"), 
+                      row.get("assigned_guide"));
         }
-        System.out.println(separator);
+        table.separator().print();
     }
     
     // ------------------------------------
@@ -131,7 +113,7 @@ public class CustomerDashboard {
      * performing necessary database transactions (insert booking, insert guests, update capacity).
      */
     private void handleBookTrek() {
-        List<Map<String, Object>> availableSchedules = viewAvailableSchedules(); 
+        List<AvailabilityIndex.Availability> availableSchedules = viewAvailableSchedules(); 
         if (availableSchedules.isEmpty()) {
             return;
         }
@@ -149,17 +131,19 @@ public class CustomerDashboard {
             return;
         }
         
-        // 2. Retrieve Schedule and Trek Price/Capacity details
-        String scheduleDetailsQuery = "SELECT s.capacity, t.t_price FROM table_schedules s JOIN tables_treks t ON s.t_id = t.t_id WHERE s.s_id = ?";
-        List<Map<String, Object>> detailsResult = con.fetchRecords(scheduleDetailsQuery, scheduleId);
+        // 2. Retrieve Schedule and Trek Price/Capacity details (from the in-memory index and catalog)
+        AvailabilityIndex availability = AvailabilityIndex.shared(con);
+        AvailabilityIndex.Availability details = availability.find(scheduleId);
+        TrekCatalog.Trek trek = (details == null) ? null
+                : TrekCatalog.shared(con).find(details.getSchedule().getTrekId());
 
-        if (detailsResult.isEmpty()) {
+        if (trek == null) {
             System.out.println("❌ Schedule ID " + scheduleId + " not found or is no longer available.");
             return;
         }
 
-        int capacity = (int) detailsResult.get(0).get("capacity");
-        double pricePerPerson = ((Number) detailsResult.get(0).get("t_price")).doubleValue(); 
+        int capacity = details.getSeatsLeft();
+        double pricePerPerson = trek.getPrice(); // price from the cached catalog
 
         // 3. Get Quantity (Number of Guests)
         int numGuests;
@@ -192,86 +176,65 @@ public class CustomerDashboard {
         // 5. Calculate Total Price
         double totalPrice = pricePerPerson * numGuests;
 
-        // 6. Perform Insertion & Capacity Update
-        
-        // --- Transaction Step 1: Insert Booking Record and GET ID ---
-        String bookSql = "INSERT INTO table_bookings (u_id, s_id, b_date, b_status, b_guests, b_total_price) " +
-                          "VALUES (?, ?, (SELECT schedule_date FROM table_schedules WHERE s_id = ?), ?, ?, ?)";
-        
-        int bookingId;
+        // 6. Reserve Seats & Insert booking + guests as ONE transaction (all steps commit together or not at all)
+        ReservationEngine.Booking booking;
         try {
-            // Uses the implemented addRecordAndGetId method to insert and get the auto-generated ID
-            bookingId = con.addRecordAndGetId(bookSql, customerId, scheduleId, scheduleId, "Pending", numGuests, totalPrice);
-        } catch (Exception e) {
-            System.out.println("❌ Failed to create main booking record. Transaction aborted. Error: " + e.getMessage());
+            booking = reservations.book(customerId, scheduleId, guestNames, totalPrice);
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to create booking. Nothing was saved. Error: " + e.getMessage());
             return;
         }
-        
-        // --- Transaction Step 2: ⭐ INSERT GUEST RECORDS ⭐ ---
-        // Assumes 'table_guests' with columns (b_id, guest_name)
-        String guestSql = "INSERT INTO table_guests (b_id, guest_name) VALUES (?, ?)";
-        for (String guestName : guestNames) {
-            con.addRecord(guestSql, bookingId, guestName);
-        }
 
-        // --- Transaction Step 3: Update Schedule Capacity ---
-        int newCapacity = capacity - numGuests;
-        String updateCapacitySql = "UPDATE table_schedules SET capacity = ? WHERE s_id = ?";
-        con.updateRecord(updateCapacitySql, newCapacity, scheduleId);
+        if (!booking.isBooked()) {
+            System.out.println("❌ Sorry, someone else just booked those slots. Only " + booking.getSeatsLeft()
+                    + " slot(s) left on Schedule ID " + scheduleId + ". Nothing was saved.");
+            return;
+        }
+        int bookingId = booking.getBookingId();
 
         System.out.println("\n=============================================");
         System.out.println("✅ Booking created successfully! (Booking ID: " + bookingId + " | Status: Pending)");
         System.out.printf("   Guests: %d | Total Price: PHP %.2f%n", numGuests, totalPrice);
         System.out.println("   All guest names have been recorded.");
-        System.out.println("   Remaining Slots for Schedule ID " + scheduleId + ": " + newCapacity);
+        System.out.println("   Remaining Slots for Schedule ID " + scheduleId + ": " + booking.getSeatsLeft());
         System.out.println("=============================================");
     }
 
     // HANDLER METHOD: Cancel Booking
     private void handleCancelBooking() {
-        viewMyBookings(); // Show customer's current bookings
+        String typed = viewMyBookings(); // Show customer's current bookings
         
-        System.out.print("Enter Booking ID to Cancel: ");
-        int cancelBid;
-
         // 1. Validate Booking ID format
-        if (sc.hasNextInt()) {
-            cancelBid = sc.nextInt();
-            sc.nextLine();
-        } else {
+        Integer cancelBid = PagedView.readId(sc, typed, "Enter Booking ID to Cancel: ");
+        if (cancelBid == null) {
             System.out.println("❌ Invalid Booking ID format. Must be a number.");
-            sc.nextLine();
             return;
         }
         
-        // 2. Retrieve details: status, s_id, and guests for capacity refund
-        String checkBookingQuery = "SELECT b_status, s_id, b_guests FROM table_bookings WHERE b_id = ? AND u_id = ?";
-        List<Map<String, Object>> bookingResult = con.fetchRecords(checkBookingQuery, cancelBid, customerId);
-
-        if (bookingResult.isEmpty()) {
-            System.out.println("❌ Booking ID " + cancelBid + " not found or does not belong to your account.");
+        // Steps 2-4 (status check, cancel, capacity refund) run in one transaction
+        ReservationEngine.Cancellation cancellation;
+        try {
+            cancellation = reservations.cancel(customerId, cancelBid);
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to cancel Booking ID " + cancelBid + ". Nothing was changed. Error: " + e.getMessage());
             return;
         }
-        
-        String currentStatus = (String) bookingResult.get(0).get("b_status");
-        int scheduleId = (int) bookingResult.get(0).get("s_id");
-        int cancelledGuests = (int) bookingResult.get(0).get("b_guests");
-        
-        if ("Cancelled".equalsIgnoreCase(currentStatus) || "Completed".equalsIgnoreCase(currentStatus)) {
-            System.out.println("⚠️ Cannot cancel Booking ID " + cancelBid + ". Current status is: " + currentStatus + ".");
-            return;
+
+        switch (cancellation.getResult()) {
+            case NOT_FOUND:
+                System.out.println("❌ Booking ID " + cancelBid + " not found or does not belong to your account.");
+                return;
+            case NOT_CANCELLABLE:
+                System.out.println("⚠️ Cannot cancel Booking ID " + cancelBid + ". Current status is: "
+                        + cancellation.getPreviousStatus() + ".");
+                return;
+            default:
+                break;
         }
-        
-        // 3. Update the booking status to 'Cancelled'
-        String cancelSql = "UPDATE table_bookings SET b_status = ? WHERE b_id = ? AND u_id = ?";
-        con.updateRecord(cancelSql, "Cancelled", cancelBid, customerId);
-        
-        // 4. Refund Capacity to the schedule
-        String refundCapacitySql = "UPDATE table_schedules SET capacity = capacity + ? WHERE s_id = ?";
-        con.updateRecord(refundCapacitySql, cancelledGuests, scheduleId);
-        
+
         System.out.println("✅ Booking ID " + cancelBid + " has been marked as 'Cancelled'.");
-        System.out.println("   Capacity for Schedule ID " + scheduleId + " refunded: " + cancelledGuests + " slots.");
+        System.out.println("   Capacity for Schedule ID " + cancellation.getScheduleId() + " refunded: "
+                + cancellation.getSeatsReleased() + " slots.");
         
         // Show updated list
         viewMyBookings();
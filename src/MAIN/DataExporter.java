@@ -0,0 +1,122 @@
+package Main;
+
+import CONFIG.ExportWriter;
+import CONFIG.dbConnect;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams a dataset (bookings, schedules, treks, users, manifests) to a CSV or
+ * NDJSON file, optionally gzipped (see ExportWriter for the file name rules).
+ *
+ * Rows are read with dbConnect.forEachRecord and written as they arrive, so a
+ * full season of table_bookings is exported in constant memory. Filters:
+ * schedule date range (from/to, inclusive, YYYY-MM-DD) and status (booking
+ * status, or account status for users). Used by the admin menu and by
+ * main --export.
+ */
+public class DataExporter {
+
+    public enum Dataset {
+        BOOKINGS("SELECT b.b_id, b.u_id, cu.u_name AS customer_name, b.s_id, t.t_code, t.t_desc AS trek_name, "
+                + "s.schedule_date, b.b_guests, b.b_total_price, b.b_date, b.b_status, gu.u_name AS guide_name "
+                + "FROM table_bookings b "
+                + "JOIN table_user cu ON b.u_id = cu.u_id "
+                + "JOIN table_schedules s ON b.s_id = s.s_id "
+                + "JOIN tables_treks t ON s.t_id = t.t_id "
+                + "LEFT JOIN table_user gu ON s.guide_id = gu.u_id",
+                "s.schedule_date", "b.b_status", "b.b_id"),
+        SCHEDULES("SELECT s.s_id, s.t_id, t.t_code, t.t_desc AS trek_name, s.schedule_date, s.capacity, "
+                + "s.guide_id, gu.u_name AS guide_name "
+                + "FROM table_schedules s "
+                + "JOIN tables_treks t ON s.t_id = t.t_id "
+                + "LEFT JOIN table_user gu ON s.guide_id = gu.u_id",
+                "s.schedule_date", null, "s.s_id"),
+        TREKS("SELECT t_id, t_code, t_desc, t_difficulty, t_price FROM tables_treks",
+                null, null, "t_id"),
+        // Never exports u_pass
+        USERS("SELECT u_id, u_name, u_email, u_contact, u_type, u_status FROM table_user",
+                null, "u_status", "u_id"),
+        // One line per guest, with the booking and schedule it belongs to
+        MANIFESTS("SELECT g.g_id, g.guest_name, b.b_id, b.b_status, cu.u_name AS customer_name, "
+                + "s.s_id, s.schedule_date, t.t_desc AS trek_name, gu.u_name AS guide_name "
+                + "FROM table_guests g "
+                + "JOIN table_bookings b ON g.b_id = b.b_id "
+                + "JOIN table_user cu ON b.u_id = cu.u_id "
+                + "JOIN table_schedules s ON b.s_id = s.s_id "
+                + "JOIN tables_treks t ON s.t_id = t.t_id "
+                + "LEFT JOIN table_user gu ON s.guide_id = gu.u_id",
+                "s.schedule_date", "b.b_status", "g.g_id");
+
+        private final String sql;
+        private final String dateColumn;   // null = no date filter
+        private final String statusColumn; // null = no status filter
+        private final String orderBy;
+
+        Dataset(String sql, String dateColumn, String statusColumn, String orderBy) {
+            this.sql = sql;
+            this.dateColumn = dateColumn;
+            this.statusColumn = statusColumn;
+            this.orderBy = orderBy;
+        }
+
+        public boolean hasDateFilter() {
+            return dateColumn != null;
+        }
+
+        public boolean hasStatusFilter() {
+            return statusColumn != null;
+        }
+
+        public static Dataset parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private final dbConnect con;
+
+    public DataExporter(dbConnect con) {
+        this.con = con;
+    }
+
+    /**
+     * Writes the dataset to file; from, to and status may be null (no filter) and are ignored
+     * by datasets without that column. Returns the number of rows written. On any error the
+     * file is left untouched (no partial export).
+     */
+    public long export(Dataset dataset, Path file, String from, String to, String status)
+            throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder(dataset.sql);
+        List<Object> params = new ArrayList<>();
+        if (dataset.hasDateFilter()) {
+            where(sql, params, dataset.dateColumn + " >= ?", from);
+            where(sql, params, dataset.dateColumn + " <= ?", to);
+        }
+        if (dataset.hasStatusFilter()) {
+            where(sql, params, dataset.statusColumn + " = ?", status);
+        }
+        sql.append(" ORDER BY ").append(dataset.orderBy);
+
+        try (ExportWriter out = ExportWriter.open(file)) {
+            con.forEachRecord(sql.toString(), out, params.toArray());
+            out.commit();
+            return out.getRowCount();
+        }
+    }
+
+    private static void where(StringBuilder sql, List<Object> params, String condition, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        sql.append(params.isEmpty() ? " WHERE " : " AND ").append(condition);
+        params.add(value);
+    }
+}
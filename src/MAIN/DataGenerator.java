@@ -0,0 +1,496 @@
+package Main;
+
+import CONFIG.DbConfig;
+import CONFIG.Transaction;
+import CONFIG.dbConnect;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Fills the database with synthetic users, treks, schedules, bookings and
+ * guests, for testing the dashboards' queries at production volumes (start
+ * with: main --generate [options], see main.generate for the options).
+ *
+ * The same seed, settings and --today always produce the same rows on the same
+ * starting database (all randomness comes from one java.util.Random, used in a
+ * fixed order). Without --today the dates and the past/upcoming status split
+ * follow the day the generator runs, and the treks already in the table join
+ * the popularity mix. Rows are added to whatever the database already holds,
+ * so point baklay.db.path at a copy:
+ *
+ *   java -Dbaklay.db.path=big.db ... Main.main --generate --bookings 10000000
+ *
+ * Distributions:
+ *   - treks: popularity follows a Zipf curve, so a few treks get most bookings
+ *   - dates: dry season (December-May) is busier than the wet season, and
+ *     weekends busier than weekdays
+ *   - bookings: 1-8 guests, mostly 1-2; never more seats than the schedule
+ *     has (capacity ends up as the seats left, as after real bookings);
+ *     past trips are Completed or Cancelled, upcoming ones Pending, Approved
+ *     or Confirmed
+ *   - every generated account has the password "secret1" and is Approved
+ *
+ * Everything is inserted with Transaction.batchInsert, one transaction per
+ * batchSize rows, with a 256 MB page cache on the writer while it runs
+ * (baklay.generate.cacheSize). Most of the time is spent inside SQLite
+ * (index updates and the table_changes triggers): 1M bookings take under a
+ * minute, 10M with 1M customers about 12 minutes (2.7 GB).
+ */
+public class DataGenerator {
+
+    public static final String PASSWORD = "secret1";
+
+    // Own booking INSERT: unlike ReservationEngine.BOOK_SQL the date is passed in, no lookup per row
+    private static final String INSERT_BOOKING_SQL = "INSERT INTO table_bookings (u_id, s_id, b_date, b_status, b_guests, b_total_price) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SEATS_LEFT_SQL = "UPDATE table_schedules SET capacity = ? WHERE s_id = ?";
+
+    private static final String[] FIRST_NAMES = {"Juan", "Maria", "Jose", "Ana", "Mark", "Angel", "John", "Kristine",
+            "Paolo", "Jasmine", "Carlo", "Nicole", "Miguel", "Camille", "Rafael", "Bea", "Christian", "Joy", "Daniel",
+            "Grace", "Gabriel", "Patricia", "Joshua", "Andrea", "Ramon", "Liza", "Noel", "Cherry", "Ben", "Mae"};
+    private static final String[] LAST_NAMES = {"Dela Cruz", "Garcia", "Reyes", "Ramos", "Mendoza", "Santos", "Flores",
+            "Gonzales", "Bautista", "Villanueva", "Fernandez", "Cruz", "Lopez", "Aquino", "Castillo", "Rivera",
+            "Tan", "Lim", "Uy", "Go", "Cabahug", "Alcoseba", "Ybanez", "Pepito", "Sarmiento", "Layao", "Abellana"};
+    private static final String[] PLACES = {"Osmena Peak", "Kandungaw Peak", "Mt. Manunggal", "Sirao Peak",
+            "Casino Peak", "Mt. Babag", "Lanaya Peak", "Mt. Lanaya", "Kawasan Falls", "Badian Highlands",
+            "Mt. Kapayas", "Bocaue Peak", "Tabunan Forest", "Mt. Mauyog", "Inambakan Falls", "Naupa Ridge",
+            "Mt. Pulang Bato", "Guadalupe Ridge", "Balamban Highlands", "Dalaguete Ridge"};
+    private static final String[] ROUTES = {"Day Hike", "Traverse", "Loop Trail", "Summit Trail", "Ridge Walk",
+            "Sunrise Climb", "River Trail", "Overnight Camp"};
+    private static final String[] DIFFICULTIES = {"Easy", "Easy", "Moderate", "Moderate", "Moderate", "Hard", "Hard", "Extreme"};
+    // Share of bookings with 1, 2, ... 8 guests
+    private static final double[] PARTY_SIZES = {0.35, 0.30, 0.14, 0.10, 0.05, 0.03, 0.02, 0.01};
+    // Booking volume per month, January first: dry season December-May
+    private static final double[] MONTH_WEIGHTS = {1.0, 0.95, 1.0, 1.0, 0.9, 0.6, 0.45, 0.45, 0.4, 0.45, 0.55, 0.95};
+    private static final double WEEKDAY_WEIGHT = 0.45;
+
+    // Page cache for the writer while generating (negative = KiB): keeps the booking indexes in memory
+    private static final long CACHE_SIZE = DbConfig.getLong("baklay.generate.cacheSize", -262_144L);
+
+    /** Volumes and seed; the defaults make a database of about a million bookings. */
+    public static final class Settings {
+        long seed = 42;
+        int customers = 100_000;
+        int guides = 300;
+        int treks = 60;
+        int schedules = -1;       // -1: bookings / 4
+        int bookings = 1_000_000;
+        LocalDate today = LocalDate.now(); // splits past (Completed) from upcoming (Pending...) bookings
+        LocalDate from = null;    // null: a year before today
+        int days = 730;           // schedules are spread over [from, from + days): a year back, a year ahead
+        int batchSize = 20_000;
+        double zipf = 1.1;        // trek popularity skew (0 = all treks equally popular)
+
+        int scheduleCount() {
+            return schedules >= 0 ? schedules : Math.max(1, bookings / 4);
+        }
+
+        LocalDate firstDay() {
+            return from != null ? from : today.minusDays(365);
+        }
+    }
+
+    private final dbConnect con;
+    private final Settings settings;
+    private final Random random;
+
+    // What run() made, for code that works with the new rows afterwards (the benchmarks)
+    private int[] customerIds = new int[0];
+    private Schedules schedules;
+    private int firstBookingId = -1;
+    private long bookingCount = 0;
+
+    public DataGenerator(dbConnect con, Settings settings) {
+        this.con = con;
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+    }
+
+    public void run() throws SQLException {
+        long start = System.currentTimeMillis();
+        System.out.println("Generating into " + DbConfig.getDbPath() + " (seed " + settings.seed
+                + ", today " + settings.today + ", dates from " + settings.firstDay() + " for " + settings.days + " days)...");
+        long previousCacheSize = setWriterCacheSize(CACHE_SIZE);
+        try {
+            int[] guideIds = users("Guide", settings.guides);
+            customerIds = users("Customer", settings.customers);
+
+            long phase = System.currentTimeMillis();
+            Trek[] treks = treks();
+            report("treks", treks.length, phase);
+
+            phase = System.currentTimeMillis();
+            schedules = schedules(treks, guideIds);
+            report("schedules", schedules.ids.length, phase);
+
+            bookings(schedules, treks, customerIds);
+
+            con.inTransaction(tx -> tx.update("ANALYZE")); // planner statistics for the new volumes
+        } finally {
+            setWriterCacheSize(previousCacheSize); // the writer is shared with whatever runs next
+        }
+        System.out.println("✅ Done in " + (System.currentTimeMillis() - start) / 1000.0 + " s.");
+    }
+
+    // Sets PRAGMA cache_size on the writer connection (it lasts as long as the connection); returns the old value
+    private long setWriterCacheSize(long cacheSize) throws SQLException {
+        try (Transaction tx = con.beginTransaction(); Statement st = tx.getConnection().createStatement()) {
+            long previous;
+            try (ResultSet rs = st.executeQuery("PRAGMA cache_size")) {
+                previous = rs.next() ? rs.getLong(1) : cacheSize;
+            }
+            st.execute("PRAGMA cache_size = " + cacheSize);
+            tx.commit();
+            return previous;
+        }
+    }
+
+    //-----------------------------------------------
+    // GENERATED ROWS
+    //-----------------------------------------------
+
+    // IDs of the customers run() added, in order (consecutive unless another process wrote meanwhile)
+    int[] getCustomerIds() {
+        return customerIds;
+    }
+
+    // Upcoming schedules run() added that have a guide and at least this many seats left
+    int[] getOpenScheduleIds(int seats) {
+        if (schedules == null) {
+            return new int[0];
+        }
+        int today = (int) settings.today.toEpochDay();
+        int[] open = new int[schedules.ids.length];
+        int count = 0;
+        for (int i = 0; i < schedules.ids.length; i++) {
+            if (schedules.dates[i] >= today && schedules.seatsLeft[i] >= seats && schedules.hasGuide) {
+                open[count++] = schedules.ids[i];
+            }
+        }
+        return Arrays.copyOf(open, count);
+    }
+
+    // Bookings run() added have IDs firstBookingId .. firstBookingId + bookingCount - 1 (same caveat)
+    int getFirstBookingId() {
+        return firstBookingId;
+    }
+
+    long getBookingCount() {
+        return bookingCount;
+    }
+
+    //-----------------------------------------------
+    // USERS AND TREKS
+    //-----------------------------------------------
+
+    private int[] users(String type, int count) throws SQLException {
+        long start = System.currentTimeMillis();
+        String hash = dbConnect.hashPassword(PASSWORD);
+        String tag = type.toLowerCase(Locale.ROOT);
+        // Suffix keeps emails unique across runs with different seeds
+        String domain = "@" + Long.toString(settings.seed, 36) + ".example.com";
+        int[] ids = new int[count];
+        List<Object[]> rows = new ArrayList<>(Math.min(count, settings.batchSize));
+        for (int i = 0; i < count; i++) {
+            String first = pick(FIRST_NAMES);
+            String last = pick(LAST_NAMES);
+            String email = (first + "." + last).toLowerCase(Locale.ROOT).replace(" ", "") + "." + tag + i + domain;
+            String contact = "09" + (100_000_000 + random.nextInt(900_000_000));
+            rows.add(new Object[]{first + " " + last, contact, email, type, "Approved", hash});
+            if (rows.size() == settings.batchSize || i == count - 1) {
+                int[] keys = insert(BulkImporter.INSERT_USER_SQL, rows);
+                System.arraycopy(keys, 0, ids, i + 1 - keys.length, keys.length);
+            }
+        }
+        report(tag + "s", count, start);
+        return ids;
+    }
+
+    private static final class Trek {
+        final int id;
+        final int price;
+
+        Trek(int id, int price) {
+            this.id = id;
+            this.price = price;
+        }
+    }
+
+    // New treks plus the ones already in the table, most popular first (the order is part of the seed)
+    private Trek[] treks() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        List<Integer> prices = new ArrayList<>();
+        for (int i = 0; i < settings.treks; i++) {
+            String place = pick(PLACES);
+            String route = pick(ROUTES);
+            String code = (place.replaceAll("[^A-Za-z]", "").toUpperCase() + "XXXX").substring(0, 4)
+                    + route.substring(0, 2).toUpperCase() + i;
+            int price = 300 + 50 * random.nextInt(55);
+            rows.add(new Object[]{code, place + " " + route, pick(DIFFICULTIES), price});
+            prices.add(price);
+        }
+        List<Trek> all = new ArrayList<>();
+        con.forEachRecord("SELECT t_id, t_price FROM tables_treks ORDER BY t_id",
+                (rs, cols) -> all.add(new Trek(rs.getInt(1), rs.getInt(2))));
+        int[] ids = rows.isEmpty() ? new int[0] : insert(BulkImporter.INSERT_TREK_SQL, rows);
+        for (int i = 0; i < ids.length; i++) {
+            all.add(new Trek(ids[i], prices.get(i)));
+        }
+        if (all.isEmpty()) {
+            throw new SQLException("No treks to schedule: use --treks N with N > 0.");
+        }
+        // Shuffle so the popular treks are a mix of old and new
+        for (int i = all.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Trek t = all.get(i);
+            all.set(i, all.get(j));
+            all.set(j, t);
+        }
+        return all.toArray(new Trek[0]);
+    }
+
+    //-----------------------------------------------
+    // SCHEDULES
+    //-----------------------------------------------
+
+    private static final class Schedules {
+        int[] ids;
+        int[] trek;         // index into the treks array
+        int[] dates;        // epoch day
+        int[] seatsLeft;
+        boolean hasGuide;   // false if there were no guides to assign
+    }
+
+    private Schedules schedules(Trek[] treks, int[] guideIds) throws SQLException {
+        int count = settings.scheduleCount();
+        double[] trekWeights = zipfWeights(treks.length, settings.zipf);
+        double[] trekCumulative = cumulative(trekWeights);
+
+        Schedules s = new Schedules();
+        s.ids = new int[count];
+        s.trek = new int[count];
+        s.dates = new int[count];
+        s.seatsLeft = new int[count];
+        s.hasGuide = guideIds.length > 0;
+
+        List<Object[]> rows = new ArrayList<>(Math.min(count, settings.batchSize));
+        for (int i = 0; i < count; i++) {
+            int trek = pickIndex(trekCumulative);
+            LocalDate date = seasonalDate();
+            int capacity = 8 + random.nextInt(8); // 8-15, the dashboard's limit
+            Integer guide = guideIds.length == 0 ? null : guideIds[random.nextInt(guideIds.length)];
+            s.trek[i] = trek;
+            s.dates[i] = (int) date.toEpochDay();
+            s.seatsLeft[i] = capacity;
+            rows.add(new Object[]{treks[trek].id, date.toString(), capacity, guide});
+            if (rows.size() == settings.batchSize || i == count - 1) {
+                int[] keys = insert(BulkImporter.INSERT_SCHEDULE_SQL, rows);
+                System.arraycopy(keys, 0, s.ids, i + 1 - keys.length, keys.length);
+            }
+        }
+        return s;
+    }
+
+    // A day in [from, from + days), weighted by month (season) and weekday
+    private LocalDate seasonalDate() {
+        while (true) {
+            LocalDate date = settings.firstDay().plusDays(random.nextInt(settings.days));
+            double weight = MONTH_WEIGHTS[date.getMonthValue() - 1];
+            DayOfWeek day = date.getDayOfWeek();
+            if (day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY) {
+                weight *= WEEKDAY_WEIGHT;
+            }
+            if (random.nextDouble() < weight) {
+                return date;
+            }
+        }
+    }
+
+    //-----------------------------------------------
+    // BOOKINGS AND GUESTS
+    //-----------------------------------------------
+
+    private void bookings(Schedules schedules, Trek[] treks, int[] customerIds) throws SQLException {
+        long start = System.currentTimeMillis();
+        if (customerIds.length == 0 || schedules.ids.length == 0) {
+            System.out.println("⚠️ No customers or schedules, skipping bookings.");
+            return;
+        }
+        double[] partyCumulative = cumulative(PARTY_SIZES);
+        int today = (int) settings.today.toEpochDay();
+
+        List<Object[]> bookingRows = new ArrayList<>(settings.batchSize);
+        List<Object[]> guestRows = new ArrayList<>(settings.batchSize * 3);
+        int[] partySizes = new int[settings.batchSize];
+        long booked = 0;
+        long guests = 0;
+        long full = 0;
+        long nextProgress = 1_000_000;
+
+        for (long n = 0; n < settings.bookings; n++) {
+            int party = pickIndex(partyCumulative) + 1;
+            String status = null;
+            int schedule = -1;
+            // Any schedule is equally likely, so popular treks and busy dates (which got more schedules) get
+            // more bookings. A few tries, then give up on this booking (nearly everything is full).
+            for (int attempt = 0; attempt < 20 && schedule < 0; attempt++) {
+                int candidate = random.nextInt(schedules.ids.length);
+                status = bookingStatus(schedules.dates[candidate] < today);
+                if (status.equals("Cancelled") || schedules.seatsLeft[candidate] >= party) {
+                    schedule = candidate;
+                }
+            }
+            if (schedule < 0) {
+                full++;
+                continue;
+            }
+            if (!status.equals("Cancelled")) {
+                schedules.seatsLeft[schedule] -= party; // cancelled bookings gave their seats back
+            }
+
+            int customerId = customerIds[random.nextInt(customerIds.length)];
+            String date = LocalDate.ofEpochDay(schedules.dates[schedule]).toString();
+            partySizes[bookingRows.size()] = party;
+            bookingRows.add(new Object[]{customerId, schedules.ids[schedule], date, status, party,
+                    party * treks[schedules.trek[schedule]].price});
+
+            if (bookingRows.size() == settings.batchSize) {
+                guests += flushBookings(bookingRows, partySizes, guestRows);
+                booked += settings.batchSize;
+                if (booked >= nextProgress) {
+                    System.out.println("   ... " + booked + " bookings");
+                    nextProgress += 1_000_000;
+                }
+            }
+        }
+        booked += bookingRows.size();
+        guests += flushBookings(bookingRows, partySizes, guestRows);
+
+        // Capacity holds the seats left (what ReservationEngine.reserve leaves behind)
+        List<Object[]> rows = new ArrayList<>(Math.min(schedules.ids.length, settings.batchSize));
+        for (int i = 0; i < schedules.ids.length; i++) {
+            rows.add(new Object[]{schedules.seatsLeft[i], schedules.ids[i]});
+            if (rows.size() == settings.batchSize || i == schedules.ids.length - 1) {
+                update(SEATS_LEFT_SQL, rows);
+            }
+        }
+
+        bookingCount = booked;
+        report("bookings", booked, start);
+        System.out.println("   " + guests + " guests" + (full > 0 ? ", " + full + " bookings skipped (schedules full)" : ""));
+    }
+
+    private String bookingStatus(boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 90 ? "Completed" : "Cancelled";
+        }
+        return roll < 35 ? "Pending" : roll < 70 ? "Approved" : roll < 92 ? "Confirmed" : "Cancelled";
+    }
+
+    // Inserts the bookings, then their guests; one transaction each. Returns the number of guests.
+    private long flushBookings(List<Object[]> bookingRows, int[] partySizes, List<Object[]> guestRows) throws SQLException {
+        if (bookingRows.isEmpty()) {
+            return 0;
+        }
+        int[] ids = insert(INSERT_BOOKING_SQL, bookingRows);
+        if (firstBookingId < 0) {
+            firstBookingId = ids[0];
+        }
+        long count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            for (int g = 0; g < partySizes[i]; g++) {
+                guestRows.add(new Object[]{ids[i], pick(FIRST_NAMES) + " " + pick(LAST_NAMES)});
+                count++;
+            }
+            if (guestRows.size() >= settings.batchSize) {
+                insert(ReservationEngine.GUEST_SQL, guestRows);
+            }
+        }
+        insert(ReservationEngine.GUEST_SQL, guestRows);
+        return count;
+    }
+
+    //-----------------------------------------------
+    // HELPERS
+    //-----------------------------------------------
+
+    // One transaction for the rows; empties the list and returns their generated IDs
+    private int[] insert(String sql, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        int[] keys;
+        try (Transaction tx = con.beginTransaction()) {
+            keys = tx.batchInsert(sql, rows);
+            tx.commit();
+        }
+        rows.clear();
+        return keys;
+    }
+
+    // One transaction for the rows; empties the list
+    private void update(String sql, List<Object[]> rows) throws SQLException {
+        try (Transaction tx = con.beginTransaction()) {
+            tx.batchUpdate(sql, rows);
+            tx.commit();
+        }
+        rows.clear();
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Weight of rank i is 1 / (i + 1)^s
+    private static double[] zipfWeights(int n, double s) {
+        double[] weights = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, s);
+            total += weights[i];
+        }
+        for (int i = 0; i < n; i++) {
+            weights[i] /= total;
+        }
+        return weights;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] out = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            out[i] = sum;
+        }
+        return out;
+    }
+
+    // Index i with probability weight[i] / total (binary search over the running sums)
+    private int pickIndex(double[] cumulative) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void report(String what, long count, long startMillis) {
+        long ms = Math.max(1, System.currentTimeMillis() - startMillis);
+        System.out.println("✅ " + count + " " + what + " in " + ms + " ms (" + count * 1000 / ms + " rows/s)");
+    }
+}
@@ -1,8 +1,10 @@
 package Main;
 
+import CONFIG.KeysetPager;
+import CONFIG.Row;
+import CONFIG.TableRenderer;
 import CONFIG.dbConnect;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 public class GuideDashboard {
@@ -11,6 +13,30 @@ public class GuideDashboard {
     private final dbConnect con;
     private final int guideId;
 
+    // The assigned-bookings list is shown again at the start of options 2 and 3; reuse it for a few seconds
+    // (any write to the tables it reads drops it right away)
+    private static final long ASSIGNED_CACHE_TTL_MS = 10_000;
+
+    // Guide's bookings with customer, trek and date (also served by ApiServer)
+    static final String ASSIGNED_SQL = "SELECT b.b_id, u.u_name AS customer_name, t.t_desc AS trek_name, s.schedule_date, b.b_status, b.b_guests " +
+                    "FROM table_bookings b " +
+                    "JOIN table_user u ON b.u_id = u.u_id " +
+                    "JOIN table_schedules s ON b.s_id = s.s_id " + // Join to schedule
+                    "JOIN  tables_treks t ON s.t_id = t.t_id";
+    static final String ASSIGNED_FILTER = "s.guide_id = ? AND b.b_status NOT IN ('Cancelled', 'Completed') AND b.b_status IN ('Approved', 'Confirmed')"; // Filter for active treks
+
+    // Lead booker details and guest count of one assigned booking, then the guest names
+    static final String MANIFEST_SQL = "SELECT u.u_name, u.u_contact, t.t_desc AS trek_name, b.b_guests " +
+                         "FROM table_bookings b " +
+                         "JOIN table_user u ON b.u_id = u.u_id " +
+                         "JOIN table_schedules s ON b.s_id = s.s_id " +
+                         "JOIN  tables_treks t ON s.t_id = t.t_id " +
+                         "WHERE b.b_id = ? AND s.guide_id = ? AND b.b_status IN ('Approved', 'Confirmed')";
+    static final String GUESTS_SQL = "SELECT guest_name FROM table_guests WHERE b_id = ?";
+
+    private static final TableRenderer.Layout ASSIGNED_LAYOUT = new TableRenderer.Layout(12, 20, 45, 12, 8, 15);
+    private static final TableRenderer.Layout MANIFEST_LAYOUT = new TableRenderer.Layout(30, 25);
+
     // Constructor...
     public GuideDashboard(Scanner sc, dbConnect con, int guideId) {
         this.sc = sc;
@@ -22,52 +48,34 @@ public class GuideDashboard {
     // --- UTILITY METHODS ----------------
     // ------------------------------------
 
-    // Helper method to create separator lines 
-    private static String createSeparator(int width) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < width; i++) {
-            sb.append("-");
-        }
-        return sb.toString();
-    }
-
     // ⭐ View Assigned Bookings (Filters by guideId and includes guest count)
-    private void viewAssignedBookings() {
-        // Query joins bookings with customer (u), schedule (s), and trek (t) tables, filtered by the current guide's ID
-        String Query = "SELECT b.b_id, u.u_name AS customer_name, t.t_desc AS trek_name, s.schedule_date, b.b_status, b.b_guests " +
-                        "FROM table_bookings b " +
-                        "JOIN table_user u ON b.u_id = u.u_id " +
-                        "JOIN table_schedules s ON b.s_id = s.s_id " + // Join to schedule
-                        "JOIN  tables_treks t ON s.t_id = t.t_id " +
-                        "WHERE s.guide_id = ? AND b.b_status NOT IN ('Cancelled', 'Completed') AND b.b_status IN ('Approved', 'Confirmed')"; // Filter for active treks
-
-        // Fetch the records using the guideId parameter
-        List<Map<String, Object>> result = con.fetchRecords(Query, guideId);
+    private String viewAssignedBookings() {
+        // Query joins bookings with customer (u), schedule (s), and trek (t) tables, filtered by the current guide's ID.
+        // Fetch one page at a time using the guideId parameter
+        KeysetPager pager = new KeysetPager(ASSIGNED_SQL, ASSIGNED_FILTER, "b.b_id", "b_id", guideId)
+                .cacheFor(ASSIGNED_CACHE_TTL_MS);
+        return PagedView.browse(sc, pager, () -> printAssignedBookingsPage(pager.fetchPage(con)));
+    }
 
+    private void printAssignedBookingsPage(List<Row> result) {
         if (result.isEmpty()) {
             System.out.println("✅ No active assigned bookings found.");
             return;
         }
 
-        // Manual printing for filtered results (adjust width as needed)
-        int totalWidth = 120;
-        String separator = createSeparator(totalWidth);
-
-        System.out.println("\n===== YOUR ACTIVE ASSIGNED BOOKINGS =====");
-        System.out.println(separator);
-        System.out.printf("| %-12s | %-20s | %-30s | %-12s | %-8s | %-15s |\n", 
-                             "Booking ID", "Customer Name", "Trek Name", "Date", "Guests", "Status");
-        System.out.println(separator);
-        for (Map<String, Object> row : result) {
-            System.out.printf("| %-12d | %-20s | %-30s | %-12s | %-8d | %-15s |\n",
-                             (Integer) row.get("b_id"), // Cast to Integer for safe printing with %d
-                             row.get("customer_name"), 
-                             row.get("trek_name"), 
-                             row.get("schedule_date"), 
-                             (Integer) row.get("b_guests"), // Cast to Integer for safe printing with %d
-                             row.get("b_status"));
+        // Whole page is built in memory and printed in one go
+        TableRenderer table = ASSIGNED_LAYOUT.newTable();
+        table.text("\n===== YOUR ACTIVE ASSIGNED BOOKINGS =====");
+        table.header("Booking ID", "Customer Name", "Trek Name", "Date", "Guests", "Status");
+        for (Row row : result) {
+            table.row(row.getInt("b_id"), // Typed reads: NULL shows as 0
+                      row.get("customer_name"), 
+                      row.get("trek_name"), 
+                      row.get("schedule_date"), 
+                      row.getInt("b_guests"),
+                      row.get("b_status"));
         }
-        System.out.println(separator);
+        table.separator().print();
     }
 
     // ------------------------------------
@@ -75,30 +83,17 @@ public class GuideDashboard {
     // ------------------------------------
 
     private void handleViewTrekMembers() {
-        viewAssignedBookings(); // Show the guide their active bookings first
-
-        System.out.print("Enter Booking ID to view members: ");
-        int bookingId;
+        String typed = viewAssignedBookings(); // Show the guide their active bookings first
 
         // 1. Validation for Booking ID (must be an integer)
-        if (sc.hasNextInt()) {
-            bookingId = sc.nextInt();
-            sc.nextLine();
-        } else {
+        Integer bookingId = PagedView.readId(sc, typed, "Enter Booking ID to view members: ");
+        if (bookingId == null) {
             System.out.println("❌ Invalid Booking ID format. Must be a number.");
-            sc.nextLine();
             return;
         }
 
         // ⭐ Query: Get Lead Booker Details AND Guest Count
-        String memberQuery = "SELECT u.u_name, u.u_contact, t.t_desc AS trek_name, b.b_guests " +
-                             "FROM table_bookings b " +
-                             "JOIN table_user u ON b.u_id = u.u_id " +
-                             "JOIN table_schedules s ON b.s_id = s.s_id " +
-                             "JOIN  tables_treks t ON s.t_id = t.t_id " +
-                             "WHERE b.b_id = ? AND s.guide_id = ? AND b.b_status IN ('Approved', 'Confirmed')";
-
-        List<Map<String, Object>> memberResult = con.fetchRecords(memberQuery, bookingId, guideId);
+        List<Row> memberResult = con.fetchRecords(MANIFEST_SQL, bookingId, guideId);
 
         if (memberResult.isEmpty()) {
             System.out.println("❌ Booking ID " + bookingId + " not found, is not assigned to you, or is not yet Approved/Confirmed.");
@@ -106,50 +101,42 @@ public class GuideDashboard {
         }
 
         // 3. Display Member Details
-        Map<String, Object> bookingDetails = memberResult.get(0);
+        Row bookingDetails = memberResult.get(0);
         // FIX: Use String.valueOf() to safely convert to String, avoiding ClassCastException if the DB returns Integer/Long for contact
         String leadName = String.valueOf(bookingDetails.get("u_name"));
         String leadContact = String.valueOf(bookingDetails.get("u_contact"));
         String trekName = String.valueOf(bookingDetails.get("trek_name"));
         
-        // Safely cast the result of Map.get() to Integer, then unbox to int.
-        Object guestsObj = bookingDetails.get("b_guests");
-        int totalGuests = (guestsObj instanceof Integer) ? (Integer) guestsObj : 0;
+        int totalGuests = bookingDetails.getInt("b_guests"); // NULL reads as 0
         
         int totalPeople = 1 + totalGuests; // Lead Booker + Guests
 
         System.out.println("\n===== 🥾 TREK MANIFEST FOR BOOKING ID: " + bookingId + " (" + trekName + ") =====");
         System.out.println("👥 **TOTAL PEOPLE:** " + totalPeople + " (Lead Booker + " + totalGuests + " Guest(s))");
-        int totalWidth = 65;
-        String separator = createSeparator(totalWidth);
-        String format = "| %-30s | %-25s |\n";
-
-        System.out.println(separator);
-        System.out.printf(format, "ROLE / NAME", "CONTACT NUMBER");
-        System.out.println(separator);
+        TableRenderer table = MANIFEST_LAYOUT.newTable();
+        table.header("ROLE / NAME", "CONTACT NUMBER");
 
         // Display the Lead Customer
-        System.out.printf(format, "**LEAD CUSTOMER:** " + leadName, leadContact);
-        System.out.println(separator);
+        table.row("**LEAD CUSTOMER:** " + leadName, leadContact);
+        table.separator();
 
         // Fetch actual guest names from table_guests
-        String guestQuery = "SELECT guest_name FROM table_guests WHERE b_id = ?";
-        List<Map<String, Object>> guestResult = con.fetchRecords(guestQuery, bookingId);
+        List<Row> guestResult = con.fetchRecords(GUESTS_SQL, bookingId);
 
         // Always display guests based on totalGuests, using real names if available, otherwise placeholders
         if (!guestResult.isEmpty() && guestResult.size() == totalGuests) {
             // Use actual guest names if the count matches
-            for (Map<String, Object> guestRow : guestResult) {
+            for (Row guestRow : guestResult) {
                 String guestName = String.valueOf(guestRow.get("guest_name"));
-                System.out.printf(format, "Guest: " + guestName, "N/A (Details not tracked)");
+                table.row("Guest: " + guestName, "N/A (Details not tracked)");
             }
         } else {
             // Fallback: Display generic placeholders if no guest names are found or count doesn't match
             for (int i = 1; i <= totalGuests; i++) {
-                System.out.printf(format, "Guest #" + i, "N/A (Details not tracked)");
+                table.row("Guest #" + i, "N/A (Details not tracked)");
             }
         }
-        System.out.println(separator);
+        table.separator().print();
         
         System.out.println("⚠️ **NOTE:** Contact details are only available for the Lead Booker. Guest names are recorded for identification (if available).");
     }
@@ -159,24 +146,18 @@ public class GuideDashboard {
 
     private void handleUpdateBookingStatus() {
         // 1. Show bookings first
-        viewAssignedBookings(); 
-
-        System.out.print("Enter Booking ID to update: ");
-        int bookingIdToUpdate;
+        String typed = viewAssignedBookings(); 
 
         // 2. Validation for Booking ID (must be an integer)
-        if (sc.hasNextInt()) {
-            bookingIdToUpdate = sc.nextInt();
-            sc.nextLine();
-        } else {
+        Integer bookingIdToUpdate = PagedView.readId(sc, typed, "Enter Booking ID to update: ");
+        if (bookingIdToUpdate == null) {
             System.out.println("❌ Invalid Booking ID format. Must be a number.");
-            sc.nextLine(); // Clear the bad input
             return;
         }
 
         // 3. Validation: Check if the booking exists AND is assigned to this guide (via schedule)
         String checkQry = "SELECT b.b_status FROM table_bookings b JOIN table_schedules s ON b.s_id = s.s_id WHERE b.b_id = ? AND s.guide_id = ?";
-        List<Map<String, Object>> bookingCheck = con.fetchRecords(checkQry, bookingIdToUpdate, guideId);
+        List<Row> bookingCheck = con.fetchRecords(checkQry, bookingIdToUpdate, guideId);
 
         if (bookingCheck.isEmpty()) {
             System.out.println("❌ Error: Booking ID " + bookingIdToUpdate + " not found or not assigned to you.");
@@ -0,0 +1,81 @@
+package Main;
+
+import CONFIG.KeysetPager;
+import java.util.Scanner;
+
+/**
+ * Shows a KeysetPager page by page with a Next/Previous prompt.
+ * If everything fits on one page no prompt is shown, so small lists look exactly as before.
+ *
+ * Lists shown before an "Enter ID" prompt pass browse()'s result to readId(), so an ID typed
+ * at the pager prompt is used instead of being dropped.
+ */
+class PagedView {
+
+    private PagedView() {
+    }
+
+    // showPage prints the pager's current page; browse() loops until the user presses Enter or types
+    // anything other than N/P. Returns that other input ("" for Enter or when no prompt was shown).
+    static String browse(Scanner sc, KeysetPager pager, Runnable showPage) {
+        while (true) {
+            showPage.run();
+
+            if (!pager.hasNext() && !pager.hasPrevious()) {
+                return "";
+            }
+
+            StringBuilder prompt = new StringBuilder("Page ").append(pager.getPageNumber()).append(" - ");
+            if (pager.hasNext()) {
+                prompt.append("[N]ext, ");
+            }
+            if (pager.hasPrevious()) {
+                prompt.append("[P]revious, ");
+            }
+            prompt.append("Enter to continue: ");
+
+            String input = readCommand(sc, pager, prompt.toString());
+            if (input.equalsIgnoreCase("N") || input.equalsIgnoreCase("P")) {
+                continue; // readCommand already moved the pager
+            }
+            return input;
+        }
+    }
+
+    // Reads one line at the pager prompt. N/P move the pager; N on the last page or P on the first is
+    // still a command, not an ID, so it is answered and the prompt shown again.
+    private static String readCommand(Scanner sc, KeysetPager pager, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = sc.nextLine().trim();
+            if (input.equalsIgnoreCase("N")) {
+                if (pager.next()) {
+                    return input;
+                }
+                System.out.println("⚠️ Already on the last page.");
+            } else if (input.equalsIgnoreCase("P")) {
+                if (pager.previous()) {
+                    return input;
+                }
+                System.out.println("⚠️ Already on the first page.");
+            } else {
+                return input;
+            }
+        }
+    }
+
+    // The ID for a prompt after a paged list: what was typed at the pager prompt, else a new line.
+    // Like nextInt(), only the first word counts. null if it isn't a number.
+    static Integer readId(Scanner sc, String typedAhead, String prompt) {
+        String input = typedAhead;
+        if (input.isEmpty()) {
+            System.out.print(prompt);
+            input = sc.nextLine().trim();
+        }
+        try {
+            return Integer.valueOf(input.split("\\s+")[0]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
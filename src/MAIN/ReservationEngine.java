@@ -0,0 +1,196 @@
+package Main;
+
+import CONFIG.Row;
+import CONFIG.Transaction;
+import CONFIG.dbConnect;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Takes and gives back seats on a schedule (table_schedules.capacity).
+ *
+ * A reservation is ONE conditional UPDATE: it only subtracts the seats if at
+ * least that many are still left, so two customers booking the same schedule
+ * at the same time can never oversell it, and nobody has to lock the whole
+ * table while a customer is typing guest names. The capacity the customer saw
+ * earlier is never written back.
+ *
+ * book() and cancel() are the whole customer booking / cancellation, shared by
+ * the console dashboard and the HTTP API; both keep the AvailabilityIndex in
+ * step with what the database reported.
+ */
+public class ReservationEngine {
+
+    // Returned by reserve() when the schedule does not have enough seats left
+    public static final int NOT_ENOUGH_SEATS = -1;
+
+    private static final String RESERVE_SQL =
+            "UPDATE table_schedules SET capacity = capacity - ? WHERE s_id = ? AND capacity >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE table_schedules SET capacity = capacity + ? WHERE s_id = ?";
+    private static final String SEATS_LEFT_SQL =
+            "SELECT capacity FROM table_schedules WHERE s_id = ?";
+
+    // A booking's date is copied from its schedule
+    static final String BOOK_SQL = "INSERT INTO table_bookings (u_id, s_id, b_date, b_status, b_guests, b_total_price) " +
+            "VALUES (?, ?, (SELECT schedule_date FROM table_schedules WHERE s_id = ?), ?, ?, ?)";
+    static final String GUEST_SQL = "INSERT INTO table_guests (b_id, guest_name) VALUES (?, ?)";
+    static final String CHECK_BOOKING_SQL = "SELECT b_status, s_id, b_guests FROM table_bookings WHERE b_id = ? AND u_id = ?";
+    static final String CANCEL_SQL = "UPDATE table_bookings SET b_status = ? WHERE b_id = ? AND u_id = ?";
+
+    /** Outcome of book(): the new booking ID (or NOT_ENOUGH_SEATS) and the seats left afterwards. */
+    public static final class Booking {
+        private final int bookingId;
+        private final int seatsLeft;
+
+        Booking(int bookingId, int seatsLeft) {
+            this.bookingId = bookingId;
+            this.seatsLeft = seatsLeft;
+        }
+
+        public boolean isBooked() {
+            return bookingId != NOT_ENOUGH_SEATS;
+        }
+
+        public int getBookingId() {
+            return bookingId;
+        }
+
+        public int getSeatsLeft() {
+            return seatsLeft;
+        }
+    }
+
+    /** Outcome of cancel(). */
+    public static final class Cancellation {
+        public enum Result { CANCELLED, NOT_FOUND, NOT_CANCELLABLE }
+
+        private final Result result;
+        private final String previousStatus;
+        private final int scheduleId;
+        private final int seatsReleased;
+
+        Cancellation(Result result, String previousStatus, int scheduleId, int seatsReleased) {
+            this.result = result;
+            this.previousStatus = previousStatus;
+            this.scheduleId = scheduleId;
+            this.seatsReleased = seatsReleased;
+        }
+
+        public Result getResult() {
+            return result;
+        }
+
+        // Status before the cancel (null if the booking was not found)
+        public String getPreviousStatus() {
+            return previousStatus;
+        }
+
+        public int getScheduleId() {
+            return scheduleId;
+        }
+
+        public int getSeatsReleased() {
+            return seatsReleased;
+        }
+    }
+
+    private final dbConnect con;
+
+    public ReservationEngine(dbConnect con) {
+        this.con = con;
+    }
+
+    // Takes the seats inside the caller's transaction.
+    // Returns the seats left afterwards, or NOT_ENOUGH_SEATS (nothing changed) if they are not available.
+    public int reserve(Transaction tx, int scheduleId, int seats) throws SQLException {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seats to reserve must be positive.");
+        }
+        if (tx.update(RESERVE_SQL, seats, scheduleId, seats) == 0) {
+            return NOT_ENOUGH_SEATS;
+        }
+        return seatsLeft(tx, scheduleId);
+    }
+
+    // Reserve in a transaction of its own
+    public int reserve(int scheduleId, int seats) throws SQLException {
+        return con.inTransaction(tx -> reserve(tx, scheduleId, seats));
+    }
+
+    // Gives seats back (cancellation). Returns the seats left afterwards.
+    public int release(Transaction tx, int scheduleId, int seats) throws SQLException {
+        tx.update(RELEASE_SQL, seats, scheduleId);
+        return seatsLeft(tx, scheduleId);
+    }
+
+    // Current capacity as seen by the transaction (0 if the schedule does not exist)
+    public int seatsLeft(Transaction tx, int scheduleId) throws SQLException {
+        List<Row> result = tx.fetch(SEATS_LEFT_SQL, scheduleId);
+        return result.isEmpty() ? 0 : result.get(0).getInt("capacity");
+    }
+
+    //-----------------------------------------------
+    // BOOK / CANCEL
+    //-----------------------------------------------
+
+    // Reserves one seat per person and records the booking (status Pending) and its guest names,
+    // all in ONE transaction. The seats shown to the customer may be stale by now: if not enough
+    // are left, nothing is written and the result is not booked.
+    public Booking book(int customerId, int scheduleId, String[] guestNames, double totalPrice) throws SQLException {
+        int partySize = guestNames.length;
+        AvailabilityIndex index = AvailabilityIndex.shared(con);
+        int[] stamp = new int[1];
+        Booking booking = con.inTransaction(tx -> {
+            stamp[0] = index.stamp(); // we hold the writer, so this orders us among commits
+            int left = reserve(tx, scheduleId, partySize);
+            if (left == NOT_ENOUGH_SEATS) {
+                return new Booking(NOT_ENOUGH_SEATS, seatsLeft(tx, scheduleId));
+            }
+            int id = tx.insertAndGetId(BOOK_SQL, customerId, scheduleId, scheduleId, "Pending", partySize, totalPrice);
+
+            // One batch for the whole group
+            List<Object[]> guestRows = new ArrayList<>(partySize);
+            for (String guestName : guestNames) {
+                guestRows.add(new Object[]{id, guestName});
+            }
+            tx.batchInsert(GUEST_SQL, guestRows);
+            return new Booking(id, left);
+        });
+        // Either way the database told us the real seats left; keep the index in step
+        index.setSeatsLeft(scheduleId, booking.getSeatsLeft(), stamp[0]);
+        return booking;
+    }
+
+    // Marks the customer's booking Cancelled and gives its seats back. The status check, the cancel
+    // and the refund run in one transaction so they can't interleave with another cancel.
+    public Cancellation cancel(int customerId, int bookingId) throws SQLException {
+        int seatsLeft;
+        int stamp;
+        Cancellation cancellation;
+        AvailabilityIndex index = AvailabilityIndex.shared(con);
+        try (Transaction tx = con.beginTransaction()) {
+            stamp = index.stamp(); // we hold the writer, so this orders us among commits
+            List<Row> bookingResult = tx.fetch(CHECK_BOOKING_SQL, bookingId, customerId);
+            if (bookingResult.isEmpty()) {
+                return new Cancellation(Cancellation.Result.NOT_FOUND, null, 0, 0);
+            }
+
+            String currentStatus = bookingResult.get(0).getString("b_status");
+            int scheduleId = bookingResult.get(0).getInt("s_id");
+            int guests = bookingResult.get(0).getInt("b_guests");
+
+            if ("Cancelled".equalsIgnoreCase(currentStatus) || "Completed".equalsIgnoreCase(currentStatus)) {
+                return new Cancellation(Cancellation.Result.NOT_CANCELLABLE, currentStatus, scheduleId, 0);
+            }
+
+            tx.update(CANCEL_SQL, "Cancelled", bookingId, customerId);
+            seatsLeft = release(tx, scheduleId, guests);
+            tx.commit();
+            cancellation = new Cancellation(Cancellation.Result.CANCELLED, currentStatus, scheduleId, guests);
+        }
+        index.setSeatsLeft(cancellation.getScheduleId(), seatsLeft, stamp);
+        return cancellation;
+    }
+}
@@ -0,0 +1,152 @@
+package Main;
+
+import CONFIG.DataVersionMonitor;
+import CONFIG.Row;
+import CONFIG.dbConnect;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of tables_treks, shared by every dashboard in the process.
+ *
+ * The table is small and almost never changes, so instead of joining it into
+ * every schedule and booking query we keep an immutable snapshot keyed by
+ * t_id. Readers just look at the current snapshot (no locking); the trek
+ * write paths in AdminDashboard call refresh() after they commit, which swaps
+ * in a new snapshot.
+ *
+ * Writes from other terminals are picked up through the DataVersionMonitor;
+ * a lookup that misses also reloads (at most once a second).
+ */
+public final class TrekCatalog {
+
+    /** One trek as stored in tables_treks. Immutable. */
+    public static final class Trek {
+        private final int id;
+        private final String code;
+        private final String description;
+        private final String difficulty;
+        private final double price;
+
+        Trek(int id, String code, String description, String difficulty, double price) {
+            this.id = id;
+            this.code = code;
+            this.description = description;
+            this.difficulty = difficulty;
+            this.price = price;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        // Price the way the table shows it: whole amounts without ".0"
+        public String getPriceText() {
+            return price == Math.rint(price) ? String.valueOf((long) price) : String.valueOf(price);
+        }
+    }
+
+    private static final String LOAD_SQL =
+            "SELECT t_id, t_code, t_desc, t_difficulty, t_price FROM tables_treks ORDER BY t_id";
+
+    // A lookup miss reloads at most this often, so a schedule of a deleted trek can't hammer the database
+    private static final long MISS_RELOAD_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static volatile TrekCatalog shared;
+
+    private final dbConnect con;
+    private volatile Map<Integer, Trek> treks = Collections.emptyMap();
+    private volatile long loadedAt;
+
+    private TrekCatalog(dbConnect con) {
+        this.con = con;
+    }
+
+    // The process-wide catalog, loaded on first use
+    public static TrekCatalog shared(dbConnect con) {
+        TrekCatalog catalog = shared;
+        if (catalog == null) {
+            synchronized (TrekCatalog.class) {
+                catalog = shared;
+                if (catalog == null) {
+                    catalog = new TrekCatalog(con);
+                    catalog.refresh();
+                    watch(catalog);
+                    shared = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    // Treks changed by another terminal are picked up by the change monitor
+    private static void watch(TrekCatalog catalog) {
+        DataVersionMonitor monitor = dbConnect.getChangeMonitor();
+        if (monitor != null) {
+            monitor.onChange("tables_treks", catalog::refresh);
+        }
+    }
+
+    // Reloads the whole table and swaps the snapshot in one step. If the query fails the previous
+    // snapshot stays, so a busy database never empties the trek list.
+    public synchronized void refresh() {
+        List<Row> rows;
+        try {
+            rows = con.queryRecords(LOAD_SQL);
+        } catch (SQLException e) {
+            System.out.println("⚠️ Could not refresh the trek catalog, keeping the previous one: " + e.getMessage());
+            return;
+        }
+        Map<Integer, Trek> fresh = new LinkedHashMap<>();
+        for (Row row : rows) {
+            Trek trek = new Trek(row.getInt("t_id"), row.getString("t_code"), row.getString("t_desc"),
+                    row.getString("t_difficulty"), row.getDouble("t_price"));
+            fresh.put(trek.getId(), trek);
+        }
+        treks = Collections.unmodifiableMap(fresh);
+        loadedAt = System.nanoTime();
+    }
+
+    // null if there is no such trek, even after reloading
+    public Trek find(int trekId) {
+        Trek trek = treks.get(trekId);
+        if (trek == null && System.nanoTime() - loadedAt > MISS_RELOAD_INTERVAL_NANOS) {
+            refresh();
+            trek = treks.get(trekId);
+        }
+        return trek;
+    }
+
+    // Description for display; treks deleted after a schedule was made show as "(removed)"
+    public String describe(int trekId) {
+        Trek trek = find(trekId);
+        return trek == null ? "(removed)" : trek.getDescription();
+    }
+
+    // All treks in t_id order (a snapshot; later refreshes don't change it)
+    public List<Trek> all() {
+        Collection<Trek> current = treks.values();
+        return Collections.unmodifiableList(new ArrayList<>(current));
+    }
+}
@@ -1,27 +1,69 @@
 package Main;
 
+import CONFIG.Row;
 import CONFIG.dbConnect;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 import java.util.List;
-import java.util.Map;
 import Main.AdminDashboard;
 import Main.GuideDashboard;
 import Main.CustomerDashboard;
 
 public class main {
 
-    // Basic regex for email validation
-    private static final Pattern EMAIL_PATTERN = 
+    // Basic regex for email validation (also used by BulkImporter)
+    static final Pattern EMAIL_PATTERN = 
         Pattern.compile("^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$", Pattern.CASE_INSENSITIVE);
 
+    // Constant for password length validation (also used by BulkImporter)
+    static final int MIN_PASS_LENGTH = 6;
+
+    // Login lookup by email (also used by ApiServer)
+    static final String LOGIN_SQL = "SELECT u_id, u_type, u_status, u_pass FROM table_user WHERE u_email = ?";
+
     public static void main(String[] args) {
         // Initialize DB Connection and Scanner
         dbConnect con = new dbConnect();
+        // Load the in-memory trek catalog and schedule availability before the first menu
+        TrekCatalog.shared(con);
+        AvailabilityIndex.shared(con);
+
+        // main --http [port]: serve the JSON API instead of the console menu
+        if (args.length > 0 && args[0].equals("--http")) {
+            startHttp(con, args);
+            return;
+        }
+        // main --serve [port]: serve this menu to many telnet-style terminals from this one JVM
+        if (args.length > 0 && args[0].equals("--serve")) {
+            startConsoleServer(con, args);
+            return;
+        }
+        // main --import <treks|schedules|users> <file.csv>
+        if (args.length > 0 && args[0].equals("--import")) {
+            importFile(con, args);
+            return;
+        }
+        // main --generate [--bookings N] [--seed N] ...: synthetic data for load testing (see generate())
+        if (args.length > 0 && args[0].equals("--generate")) {
+            generate(con, args);
+            return;
+        }
+        // main --export <dataset> <file> [--from YYYY-MM-DD] [--to YYYY-MM-DD] [--status S]
+        if (args.length > 0 && args[0].equals("--export")) {
+            export(con, args);
+            return;
+        }
+
+        Scanner sc = new Scanner(System.in);
+        runSession(sc, con);
+        sc.close();
+    }
+
+    // One user's menu loop, from the main menu until they exit. Also run once per connection by
+    // ConsoleServer, so it must never end the JVM (no System.exit) and leaves closing sc to the caller.
+    static void runSession(Scanner sc, dbConnect con) {
         int choice;
         char cont = 'Y'; 
-        Scanner sc = new Scanner(System.in);
-        final int MIN_PASS_LENGTH = 6; // Constant for password length validation
 
         // Label for easy continuation of the main loop (used in registration error handling)
         mainLoop: do {
@@ -68,14 +110,13 @@ public class main {
                     } while (true);
 
                     // --- SECURE LOGIN LOGIC ---
-                    String qry = "SELECT u_id, u_type, u_status, u_pass FROM table_user WHERE u_email = ?";
-                    List<Map<String, Object>> result = con.fetchRecords(qry, em);
+                    List<Row> result = con.fetchRecords(LOGIN_SQL, em);
                     
                     if (result.isEmpty()) {
                         System.out.println("❌ INVALID CREDENTIALS (Email not found)");
                     } else {
-                        Map<String, Object> user = result.get(0);
-                        String storedHashedPassword = user.get("u_pass").toString();
+                        Row user = result.get(0);
+                        String storedHashedPassword = user.getString("u_pass");
 
                         // HASH the trimmed raw input password
                         String inputHashedPassword = dbConnect.hashPassword(pas); 
@@ -83,9 +124,9 @@ public class main {
                         // VERIFY: Compare the newly generated hash with the stored hash
                         if (inputHashedPassword != null && inputHashedPassword.equals(storedHashedPassword)) {
                             // Password is correct!
-                            String stat = user.get("u_status").toString();
-                            String type = user.get("u_type").toString();
-                            int userId = ((Number) user.get("u_id")).intValue();
+                            String stat = user.getString("u_status");
+                            String type = user.getString("u_type");
+                            int userId = user.getInt("u_id");
 
                             if (stat.equals("Pending")) {
                                 System.out.println("⚠️ Account is Pending, Contact the Admin!");
@@ -211,9 +252,7 @@ public class main {
 
                 case 3:
                     System.out.println("👋 Thank you for using Baklay Cebu. Program ended.");
-                    sc.close();
-                    System.exit(0);
-                    break;
+                    return;
 
                 default:
                     System.out.println("❌ Invalid choice.");
@@ -226,8 +265,150 @@ public class main {
 
         } while (cont == 'Y');
         
-        // Final cleanup if the user exits via the continue prompt
-        sc.close();
         System.out.println("👋 Program ended.");
     }
-}
\ No newline at end of file
+
+    private static int portArg(String[] args, int defaultPort) {
+        if (args.length < 2) {
+            return defaultPort;
+        }
+        try {
+            return Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Invalid port: " + args[1]);
+            return -1;
+        }
+    }
+
+    private static void startConsoleServer(dbConnect con, String[] args) {
+        int port = portArg(args, ConsoleServer.DEFAULT_PORT);
+        if (port < 0) {
+            return;
+        }
+        try {
+            new ConsoleServer(con, port).run(); // accepts sessions until the process is stopped
+        } catch (java.io.IOException e) {
+            System.out.println("❌ Console server on port " + port + " stopped: " + e.getMessage());
+        }
+    }
+
+    private static void startHttp(dbConnect con, String[] args) {
+        int port = portArg(args, ApiServer.DEFAULT_PORT);
+        if (port < 0) {
+            return;
+        }
+        try {
+            new ApiServer(con, port).start(); // the server's own thread keeps the JVM running
+        } catch (java.io.IOException e) {
+            System.out.println("❌ Could not start the HTTP API on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    private static void export(dbConnect con, String[] args) {
+        if (args.length < 3 || (args.length - 3) % 2 != 0) {
+            System.out.println("Usage: --export <bookings|schedules|treks|users|manifests> <file> "
+                    + "[--from YYYY-MM-DD] [--to YYYY-MM-DD] [--status S]");
+            return;
+        }
+        DataExporter.Dataset dataset = DataExporter.Dataset.parse(args[1]);
+        if (dataset == null) {
+            System.out.println("❌ Unknown dataset: " + args[1]);
+            return;
+        }
+        String from = null;
+        String to = null;
+        String status = null;
+        for (int i = 3; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--from": from = args[i + 1]; break;
+                case "--to": to = args[i + 1]; break;
+                case "--status": status = args[i + 1]; break;
+                default:
+                    System.out.println("❌ Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        for (String date : new String[]{from, to}) {
+            if (date != null && !(AdminDashboard.DATE_PATTERN.matcher(date).matches() && AdminDashboard.isCalendarDate(date))) {
+                System.out.println("❌ Invalid date: " + date + " (use YYYY-MM-DD)");
+                return;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            long rows = new DataExporter(con).export(dataset, java.nio.file.Paths.get(args[2]), from, to, status);
+            System.out.println("✅ Exported " + rows + " rows to " + args[2]
+                    + " in " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (java.sql.SQLException | java.io.IOException e) {
+            System.out.println("❌ Export failed: " + e.getMessage());
+        }
+    }
+
+    private static void importFile(dbConnect con, String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: --import <treks|schedules|users> <file.csv>");
+            return;
+        }
+        BulkImporter.Target target = BulkImporter.Target.parse(args[1]);
+        if (target == null) {
+            System.out.println("❌ Unknown import type: " + args[1]);
+            return;
+        }
+        try {
+            new BulkImporter(con).importFile(target, java.nio.file.Paths.get(args[2]));
+        } catch (java.sql.SQLException | java.io.IOException e) {
+            System.out.println("❌ Import failed: " + e.getMessage());
+        }
+    }
+
+    // Options: --seed N, --customers N, --guides N, --treks N, --schedules N (default bookings / 4),
+    // --bookings N, --today YYYY-MM-DD, --from YYYY-MM-DD, --days N, --batch N, --zipf X
+    // (see DataGenerator.Settings for defaults)
+    private static void generate(dbConnect con, String[] args) {
+        DataGenerator.Settings settings = new DataGenerator.Settings();
+        if (args.length % 2 == 0) {
+            System.out.println("Usage: --generate [--seed N] [--customers N] [--guides N] [--treks N] [--schedules N] "
+                    + "[--bookings N] [--today YYYY-MM-DD] [--from YYYY-MM-DD] [--days N] [--batch N] [--zipf X]");
+            return;
+        }
+        try {
+            for (int i = 1; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--seed": settings.seed = Long.parseLong(value); break;
+                    case "--customers": settings.customers = nonNegative(args[i], value); break;
+                    case "--guides": settings.guides = nonNegative(args[i], value); break;
+                    case "--treks": settings.treks = nonNegative(args[i], value); break;
+                    case "--schedules": settings.schedules = nonNegative(args[i], value); break;
+                    case "--bookings": settings.bookings = nonNegative(args[i], value); break;
+                    case "--today": settings.today = java.time.LocalDate.parse(value); break;
+                    case "--from": settings.from = java.time.LocalDate.parse(value); break;
+                    case "--days": settings.days = Math.max(1, nonNegative(args[i], value)); break;
+                    case "--batch": settings.batchSize = Math.max(1, nonNegative(args[i], value)); break;
+                    case "--zipf": settings.zipf = Double.parseDouble(value); break;
+                    default:
+                        System.out.println("❌ Unknown option: " + args[i]);
+                        return;
+                }
+            }
+        } catch (NumberFormatException | java.time.format.DateTimeParseException e) {
+            System.out.println("❌ Invalid option value: " + e.getMessage());
+            return;
+        }
+
+        try {
+            new DataGenerator(con, settings).run();
+        } catch (java.sql.SQLException e) {
+            System.out.println("❌ Generation stopped: " + e.getMessage());
+        }
+    }
+
+    private static int nonNegative(String option, String value) {
+        int n = Integer.parseInt(value);
+        if (n < 0) {
+            throw new NumberFormatException(option + " must not be negative");
+        }
+        return n;
+    }
+}